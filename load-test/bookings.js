@@ -0,0 +1,49 @@
+// Carga para comparar os modos de execução (worker pool x virtual threads x reativo).
+// Uso: TOKEN=<jwt do Keycloak> k6 run load-test/bookings.js
+// Rode uma vez com a aplicação em cada modo e compare http_req_duration e http_reqs.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:9090';
+const HEADERS = {
+    'Authorization': `Bearer ${__ENV.TOKEN}`,
+    'Content-Type': 'application/json',
+};
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-arrival-rate',
+            rate: 500,
+            timeUnit: '1s',
+            duration: '1m',
+            preAllocatedVUs: 200,
+            exec: 'myBookings',
+        },
+        writes: {
+            executor: 'constant-arrival-rate',
+            rate: 50,
+            timeUnit: '1s',
+            duration: '1m',
+            preAllocatedVUs: 100,
+            exec: 'createBooking',
+        },
+    },
+};
+
+export function myBookings() {
+    const res = http.get(`${BASE_URL}/bookings/mybookings`, { headers: HEADERS });
+    check(res, { 'status 200': (r) => r.status === 200 });
+}
+
+export function createBooking() {
+    const start = new Date(Date.now() + (1 + Math.floor(Math.random() * 300)) * 86400000);
+    const end = new Date(start.getTime() + 2 * 86400000);
+    const body = JSON.stringify({
+        vehicleId: 1 + Math.floor(Math.random() * 1000),
+        startDate: start.toISOString().slice(0, 10),
+        endDate: end.toISOString().slice(0, 10),
+    });
+    const res = http.post(`${BASE_URL}/bookings`, body, { headers: HEADERS });
+    check(res, { 'criada ou conflito': (r) => r.status === 201 || r.status === 400 || r.status === 409 });
+}
@@ -0,0 +1,60 @@
+// Vazão de criação de reservas, individual e em lote (POST /bookings/batch).
+// Uso: TOKEN=<jwt do Keycloak> k6 run load-test/create-throughput.js
+// Compare http_reqs e bookings_created antes/depois de mudar a geração de ids
+// (IDENTITY x booking.id.strategy=sequence x time-ordered) com o banco vazio em cada rodada.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:9090';
+const BATCH_SIZE = parseInt(__ENV.BATCH_SIZE || '100');
+const HEADERS = {
+    'Authorization': `Bearer ${__ENV.TOKEN}`,
+    'Content-Type': 'application/json',
+};
+
+const bookingsCreated = new Counter('bookings_created');
+
+export const options = {
+    scenarios: {
+        single: {
+            executor: 'constant-vus',
+            vus: 20,
+            duration: '1m',
+            exec: 'single',
+        },
+        bulk: {
+            executor: 'constant-vus',
+            vus: 4,
+            duration: '1m',
+            startTime: '1m10s',
+            exec: 'bulk',
+        },
+    },
+};
+
+// Veículo e período aleatórios o bastante para quase não haver conflito
+function randomRequest() {
+    const start = new Date(Date.now() + (1 + Math.floor(Math.random() * 3000)) * 86400000);
+    const end = new Date(start.getTime() + 86400000);
+    return {
+        vehicleId: 1 + Math.floor(Math.random() * 100000),
+        startDate: start.toISOString().slice(0, 10),
+        endDate: end.toISOString().slice(0, 10),
+    };
+}
+
+export function single() {
+    const res = http.post(`${BASE_URL}/bookings`, JSON.stringify(randomRequest()), { headers: HEADERS });
+    if (res.status === 201) bookingsCreated.add(1);
+    check(res, { 'criada ou conflito': (r) => r.status === 201 || r.status === 400 || r.status === 409 });
+}
+
+export function bulk() {
+    const body = JSON.stringify(Array.from({ length: BATCH_SIZE }, randomRequest));
+    const res = http.post(`${BASE_URL}/bookings/batch`, body, { headers: HEADERS });
+    check(res, { 'status 200': (r) => r.status === 200 });
+    if (res.status === 200) {
+        bookingsCreated.add(res.json().filter((item) => item.status === 201).length);
+    }
+}
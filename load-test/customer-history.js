@@ -0,0 +1,44 @@
+// Leitura de um histórico grande (load-test/customer-history.sql) para perfilar alocação por linha.
+// Uso: TOKEN=<jwt do Keycloak> k6 run load-test/customer-history.js
+// Rode a aplicação com os caches de leitura desligados para toda requisição ir ao banco (ver README).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:9090';
+const PAGE_SIZE = parseInt(__ENV.PAGE_SIZE || '500');
+const HEADERS = { 'Authorization': `Bearer ${__ENV.TOKEN}` };
+
+export const options = {
+    scenarios: {
+        mybookings: {
+            executor: 'constant-vus',
+            vus: 8,
+            duration: '1m',
+            exec: 'myBookings',
+        },
+        listall: {
+            executor: 'constant-vus',
+            vus: 8,
+            duration: '1m',
+            startTime: '1m10s',
+            exec: 'listAll',
+        },
+    },
+};
+
+export function myBookings() {
+    const res = http.get(`${BASE_URL}/bookings/mybookings`, { headers: HEADERS });
+    check(res, { 'status 200': (r) => r.status === 200 });
+}
+
+// Percorre a tabela inteira seguindo o X-Next-Cursor (precisa de token admin)
+export function listAll() {
+    let after = 0;
+    for (;;) {
+        const res = http.get(`${BASE_URL}/bookings/listall?after=${after}&limit=${PAGE_SIZE}`, { headers: HEADERS });
+        if (!check(res, { 'status 200': (r) => r.status === 200 })) return;
+        const next = res.headers['X-Next-Cursor'];
+        if (!next) return;
+        after = next;
+    }
+}
@@ -0,0 +1,12 @@
+-- Histórico grande para um cliente só, para medir /bookings/mybookings e /bookings/listall.
+-- Uso: psql -h localhost -p 5433 -U postgres -v customer=<sub do token> -f load-test/customer-history.sql
+-- Todas FINISHED, então não esbarram na constraint de exclusão nem nos índices de disponibilidade.
+insert into booking (id, vehicleId, customerId, startDate, endDate, status)
+select nextval('booking_seq'),
+       1000000 + i % 1000,
+       :'customer',
+       date '2000-01-01' + (i / 1000) * 3,
+       date '2000-01-01' + (i / 1000) * 3 + 1,
+       'FINISHED'
+from generate_series(1, 50000) as i;
+analyze booking;
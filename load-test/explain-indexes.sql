@@ -0,0 +1,38 @@
+-- Planos e latência das consultas do BookingRepository com 10M reservas, sem e com os índices da V6.
+-- Uso: psql -h localhost -p 5433 -U postgres -f load-test/explain-indexes.sql
+-- Roda numa tabela à parte (booking_bench) e a remove no final; não toca na booking.
+\timing on
+
+drop table if exists booking_bench;
+create table booking_bench (like booking including defaults);
+
+-- 100k veículos, períodos de 2 dias sem sobreposição por veículo; ~10% bloqueando o veículo
+insert into booking_bench (id, vehicleId, customerId, startDate, endDate, status)
+select i,
+       i % 100000,
+       'customer-' || (i % 500000),
+       date '2020-01-01' + ((i / 100000) * 3)::int,
+       date '2020-01-01' + ((i / 100000) * 3 + 1)::int,
+       case when i % 10 = 0 then 'CREATED'
+            when i % 10 = 1 then 'RENTED'
+            when i % 10 < 5 then 'CANCELED'
+            else 'FINISHED' end
+from generate_series(1, 10000000) as i;
+alter table booking_bench add primary key (id);
+analyze booking_bench;
+
+\echo '==== sem índices ===='
+\i load-test/explain-queries.sql
+
+create index booking_bench_vehicle_period_occupied_idx on booking_bench (vehicleId, startDate, endDate)
+    where status in ('CREATED', 'RENTED', 'ACTIVE');
+create index booking_bench_customer_idx on booking_bench (customerId, id)
+    include (vehicleId, startDate, endDate, status);
+create index booking_bench_vehicle_id_idx on booking_bench (vehicleId, id);
+create index booking_bench_status_id_idx on booking_bench (status, id);
+vacuum analyze booking_bench;
+
+\echo '==== com os índices da V6 ===='
+\i load-test/explain-queries.sql
+
+drop table booking_bench;
@@ -0,0 +1,27 @@
+-- Mesmas consultas que o Hibernate gera no BookingRepository, sobre booking_bench
+\echo '-- findByCustomerId'
+explain (analyze, buffers)
+select id, vehicleId, customerId, startDate, endDate, status from booking_bench where customerId = 'customer-4242';
+
+\echo '-- findActiveByVehicleId'
+explain (analyze, buffers)
+select * from booking_bench where vehicleId = 4242 and status = 'RENTED' limit 1;
+
+\echo '-- hasDateConflict'
+explain (analyze, buffers)
+select count(*) from booking_bench
+where vehicleId = 4242 and status in ('CREATED', 'RENTED', 'ACTIVE') and startDate <= date '2021-06-10' and endDate >= date '2021-06-01';
+
+\echo '-- findOverlapping (POST /bookings/batch, 100 veículos)'
+explain (analyze, buffers)
+select * from booking_bench
+where vehicleId in (select generate_series(1000, 1099)) and status in ('CREATED', 'RENTED', 'ACTIVE')
+  and startDate <= date '2021-06-10' and endDate >= date '2021-06-01';
+
+\echo '-- findResponsePage com filtro de veículo'
+explain (analyze, buffers)
+select id, vehicleId, customerId, startDate, endDate, status from booking_bench where id > 0 and vehicleId = 4242 order by id limit 100;
+
+\echo '-- findResponsePage com filtro de status'
+explain (analyze, buffers)
+select id, vehicleId, customerId, startDate, endDate, status from booking_bench where id > 5000000 and status = 'CREATED' order by id limit 100;
@@ -0,0 +1,38 @@
+package daniel.caixa.client;
+
+import daniel.caixa.exception.VehicleNotFoundException;
+import io.quarkus.rest.client.reactive.ClientExceptionMapper;
+import io.smallrye.faulttolerance.api.CircuitBreakerName;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+// Mesmo vehicles-ms do VehicleAPIClient, sem bloquear a thread de I/O.
+// Circuito próprio: os nomes precisam ser únicos por método.
+@RegisterRestClient(configKey = "vehicles-ms")
+@Path("/vehicles")
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+public interface ReactiveVehicleAPIClient {
+
+    String CIRCUIT_FIND = "vehicles-find-async";
+
+    @ClientExceptionMapper
+    static RuntimeException toException(Response response) {
+        return VehicleAPIClient.toException(response);
+    }
+
+    @GET
+    @Path("/{vehicleId}")
+    @Timeout(1000)
+    @Bulkhead(value = 50, waitingTaskQueue = 50)
+    @CircuitBreaker(requestVolumeThreshold = 20, failureRatio = 0.5, delay = 5000, successThreshold = 3,
+            skipOn = VehicleNotFoundException.class)
+    @CircuitBreakerName(CIRCUIT_FIND)
+    Uni<VehicleAPIClient.Vehicle> findVehicleById(@PathParam("vehicleId") Long id);
+}
@@ -0,0 +1,73 @@
+package daniel.caixa.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.quarkus.oidc.client.OidcClient;
+import io.quarkus.oidc.client.Tokens;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Token de serviço (client credentials, quarkus-oidc-client) para chamadas ao vehicles-ms sem
+// usuário, como as do VehicleStatusDispatcher. É renovado pelo scheduler antes de expirar;
+// o caminho da requisição só lê o último token obtido e nunca vai ao Keycloak.
+@ApplicationScoped
+public class ServiceTokenProvider {
+
+    @Inject
+    OidcClient oidcClient;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "booking.auth.service-token.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "booking.auth.service-token.refresh-ahead", defaultValue = "30s")
+    Duration refreshAhead;
+
+    @ConfigProperty(name = "booking.auth.service-token.timeout", defaultValue = "10s")
+    Duration timeout;
+
+    private volatile Tokens tokens;
+
+    private Timer refreshTimer;
+
+    @PostConstruct
+    void init() {
+        refreshTimer = Timer.builder("booking.auth.service-token.refresh")
+                .description("Tempo para obter o token de serviço no Keycloak")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(every = "${booking.auth.service-token.check-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refreshIfNeeded() {
+        if (!enabled) return;
+        Tokens current = tokens;
+        if (current != null && !expiresWithin(current, refreshAhead)) return;
+        try {
+            tokens = refreshTimer.recordCallable(() -> oidcClient.getTokens().await().atMost(timeout));
+        } catch (Exception e) {
+            // Mantém o token atual enquanto ele valer; a próxima rodada tenta de novo
+            Log.warn("Falha ao renovar o token de serviço", e);
+        }
+    }
+
+    // Último token válido, ou null se ainda não há um (ou se o recurso está desligado)
+    public String accessToken() {
+        Tokens current = tokens;
+        if (!enabled || current == null || current.isAccessTokenExpired()) return null;
+        return current.getAccessToken();
+    }
+
+    private static boolean expiresWithin(Tokens tokens, Duration window) {
+        Long expiresAt = tokens.getAccessTokenExpiresAt();
+        return expiresAt == null || Instant.ofEpochSecond(expiresAt).minus(window).isBefore(Instant.now());
+    }
+}
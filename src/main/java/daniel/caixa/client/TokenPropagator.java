@@ -1,5 +1,6 @@
 package daniel.caixa.client;
 
+import io.quarkus.arc.Arc;
 import jakarta.ws.rs.client.ClientRequestContext;
 import jakarta.ws.rs.client.ClientRequestFilter;
 import jakarta.ws.rs.ext.Provider;
@@ -9,6 +10,8 @@ import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
 
 import java.io.IOException;
 
+// Repassa o token do usuário da requisição; fora de uma requisição (jobs agendados) usa o token de serviço.
+// Um Authorization já definido na chamada (lotes do VehicleLookupBatcher) é mantido
 @Provider
 @RegisterProvider(TokenPropagator.class)
 public class TokenPropagator implements ClientRequestFilter {
@@ -16,11 +19,20 @@ public class TokenPropagator implements ClientRequestFilter {
     @Inject
     JsonWebToken jwt;
 
+    @Inject
+    ServiceTokenProvider serviceTokens;
+
     @Override
     public void filter(ClientRequestContext requestContext) throws IOException {
-        if (jwt == null || jwt.getRawToken() == null) return;
+        if (requestContext.getHeaders().containsKey("Authorization")) return;
+
+        String token = null;
+        if (Arc.container().requestContext().isActive() && jwt != null) {
+            token = jwt.getRawToken();
+        }
+        if (token == null) token = serviceTokens.accessToken();
+        if (token == null) return;
 
-        String token = jwt.getRawToken();
         requestContext.getHeaders().add("Authorization", "Bearer " + token);
     }
-}
\ No newline at end of file
+}
@@ -1,33 +1,98 @@
 package daniel.caixa.client;
 
+import daniel.caixa.exception.VehicleNotFoundException;
+import daniel.caixa.exception.VehicleServiceUnavailableException;
 import io.quarkus.logging.Log;
 import io.quarkus.rest.client.reactive.ClientExceptionMapper;
+import io.smallrye.faulttolerance.api.CircuitBreakerName;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Timeout;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Timeouts, bulkhead e circuit breaker por método; os valores podem ser trocados em
+// quarkus.fault-tolerance."daniel.caixa.client.VehicleAPIClient/<método>".*
+// Um 404 não conta como falha do vehicles-ms para o circuito.
 @RegisterRestClient(configKey = "vehicles-ms")
 @Path("/vehicles")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
 public interface VehicleAPIClient {
 
+    String CIRCUIT_FIND = "vehicles-find";
+    String CIRCUIT_FIND_BATCH = "vehicles-find-batch";
+    String CIRCUIT_UPDATE_STATUS = "vehicles-update-status";
+
+    // Só os primeiros bytes do corpo de erro vão para a exceção e o log
+    int MAX_ERROR_BODY = 512;
+
     @ClientExceptionMapper
     static RuntimeException toException(Response response) {
-        String s = response.readEntity(String.class);
-        Log.error("Deu erro aqui! " + s);
-        return new RuntimeException(s);
+        String body = readErrorBody(response);
+        Log.errorf("vehicles-ms respondeu %d: %s", response.getStatus(), body);
+        if (response.getStatus() == Response.Status.NOT_FOUND.getStatusCode()) {
+            return new VehicleNotFoundException("Veículo não encontrado");
+        }
+        if (response.getStatus() >= 500) {
+            return new VehicleServiceUnavailableException("vehicles-ms respondeu " + response.getStatus());
+        }
+        return new RuntimeException(body);
+    }
+
+    static String readErrorBody(Response response) {
+        if (!response.hasEntity()) return "";
+        try (InputStream in = response.readEntity(InputStream.class)) {
+            return new String(in.readNBytes(MAX_ERROR_BODY), StandardCharsets.UTF_8);
+        } catch (IOException | RuntimeException e) {
+            return "";
+        }
     }
 
     @GET
     @Path("/{vehicleId}")
+    @Timeout(1000)
+    @Bulkhead(20)
+    @CircuitBreaker(requestVolumeThreshold = 20, failureRatio = 0.5, delay = 5000, successThreshold = 3,
+            skipOn = VehicleNotFoundException.class)
+    @CircuitBreakerName(CIRCUIT_FIND)
     Vehicle findVehicleById(@PathParam("vehicleId") Long id);
 
+    // Busca vários veículos numa chamada; ids inexistentes não voltam na lista.
+    // authorization substitui o token da requisição (ex.: token de serviço num lote de vários usuários);
+    // nulo deixa o TokenPropagator decidir
+    @POST
+    @Path("/batch")
+    @Timeout(2000)
+    @Bulkhead(10)
+    @CircuitBreaker(requestVolumeThreshold = 10, failureRatio = 0.5, delay = 5000, successThreshold = 2)
+    @CircuitBreakerName(CIRCUIT_FIND_BATCH)
+    List<VehicleStatus> findVehiclesByIds(@HeaderParam("Authorization") String authorization, Collection<Long> ids);
+
+    // Chamado só pelo VehicleStatusDispatcher; o vehicles-ms pode usar o Idempotency-Key
+    // para ignorar a repetição de um comando que já aplicou
     @PATCH
     @Path("/{bookingID}/status")
-    String updateStatus(@PathParam("bookingID") Long id, Vehicle status);
+    @Timeout(2000)
+    @Bulkhead(10)
+    @CircuitBreaker(requestVolumeThreshold = 10, failureRatio = 0.5, delay = 5000, successThreshold = 2,
+            skipOn = VehicleNotFoundException.class)
+    @CircuitBreakerName(CIRCUIT_UPDATE_STATUS)
+    String updateStatus(@PathParam("bookingID") Long id, @HeaderParam("Idempotency-Key") UUID idempotencyKey,
+                        Vehicle status);
 
     record Vehicle(String status) {
     }
+
+    record VehicleStatus(Long id, String status) {
+    }
 }
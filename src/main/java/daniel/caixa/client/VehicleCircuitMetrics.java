@@ -0,0 +1,55 @@
+package daniel.caixa.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import io.smallrye.faulttolerance.api.CircuitBreakerState;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+// Exporta cada transição dos circuitos do vehicles-ms (vehicles.client.circuit.transitions)
+// e o estado atual (vehicles.client.circuit.state: 0 fechado, 1 aberto, 2 meio-aberto),
+// além das métricas ft.* que o SmallRye Fault Tolerance já publica por método.
+@ApplicationScoped
+public class VehicleCircuitMetrics {
+
+    static final List<String> CIRCUITS = List.of(
+            VehicleAPIClient.CIRCUIT_FIND,
+            VehicleAPIClient.CIRCUIT_FIND_BATCH,
+            VehicleAPIClient.CIRCUIT_UPDATE_STATUS,
+            ReactiveVehicleAPIClient.CIRCUIT_FIND);
+
+    @Inject
+    CircuitBreakerMaintenance maintenance;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    void register(@Observes StartupEvent event) {
+        for (String circuit : CIRCUITS) {
+            Gauge.builder("vehicles.client.circuit.state", () -> stateValue(maintenance.currentState(circuit)))
+                    .description("Estado do circuito do vehicles-ms")
+                    .tag("circuit", circuit)
+                    .register(meterRegistry);
+
+            maintenance.onStateChange(circuit, state -> {
+                meterRegistry.counter("vehicles.client.circuit.transitions",
+                        "circuit", circuit, "state", state.name()).increment();
+                Log.warnf("Circuito %s do vehicles-ms agora %s", circuit, state);
+            });
+        }
+    }
+
+    private static int stateValue(CircuitBreakerState state) {
+        return switch (state) {
+            case CLOSED -> 0;
+            case OPEN -> 1;
+            case HALF_OPEN -> 2;
+        };
+    }
+}
@@ -0,0 +1,191 @@
+package daniel.caixa.client;
+
+import daniel.caixa.exception.VehicleNotFoundException;
+import daniel.caixa.exception.VehicleServiceUnavailableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Junta buscas concorrentes de veículos numa única chamada ao POST /vehicles/batch.
+// A primeira thread de cada lote é a líder: espera a janela (ou o lote encher), faz a chamada
+// e entrega o resultado às demais. O lote mistura pedidos de usuários diferentes, então a chamada
+// usa o token de serviço (ServiceTokenProvider), nunca o do usuário da líder; sem token de serviço
+// cada busca vai sozinha com o token do próprio usuário.
+@ApplicationScoped
+public class VehicleLookupBatcher {
+
+    @Inject
+    @RestClient
+    VehicleAPIClient vehicleAPIClient;
+
+    @Inject
+    ServiceTokenProvider serviceTokens;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "vehicles-ms.batch.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "vehicles-ms.batch.window", defaultValue = "2ms")
+    Duration window;
+
+    @ConfigProperty(name = "vehicles-ms.batch.max-size", defaultValue = "64")
+    int maxSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Batch current;
+
+    private Timer batchTimer;
+    private DistributionSummary batchSize;
+
+    @PostConstruct
+    void init() {
+        batchTimer = Timer.builder("vehicles.client.find.batch")
+                .description("Latência do POST /vehicles/batch no vehicles-ms")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        batchSize = DistributionSummary.builder("vehicles.client.batch.size")
+                .description("Veículos por chamada ao vehicles-ms")
+                .register(meterRegistry);
+    }
+
+    public VehicleAPIClient.Vehicle find(Long vehicleId) {
+        if (!enabled || serviceTokens.accessToken() == null) return vehicleAPIClient.findVehicleById(vehicleId);
+
+        Batch batch;
+        boolean leader;
+        CompletableFuture<VehicleAPIClient.Vehicle> result;
+        lock.lock();
+        try {
+            leader = current == null;
+            if (leader) current = new Batch();
+            batch = current;
+            result = batch.pending.computeIfAbsent(vehicleId, id -> new CompletableFuture<>());
+            if (batch.pending.size() >= maxSize) {
+                current = null;
+                batch.full.countDown();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leader) {
+            awaitWindow(batch);
+            execute(batch, bearer(serviceTokens.accessToken()));
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    // Busca explícita de vários veículos (POST /bookings/batch), em chamadas de até max-size ids.
+    // Veículos que não existem ficam fora do resultado; uma chamada que falha marca só os ids dela,
+    // e os demais seguem.
+    public VehicleLookupResult findAll(Collection<Long> vehicleIds) {
+        VehicleLookupResult result = new VehicleLookupResult();
+        if (!enabled) {
+            for (Long id : vehicleIds) {
+                try {
+                    VehicleAPIClient.Vehicle vehicle = vehicleAPIClient.findVehicleById(id);
+                    if (vehicle != null) result.found().put(id, vehicle);
+                } catch (VehicleNotFoundException e) {
+                    // 404: fica fora do resultado, como no POST /vehicles/batch
+                } catch (RuntimeException e) {
+                    result.failed().put(id, e);
+                }
+            }
+            return result;
+        }
+
+        List<Long> ids = List.copyOf(vehicleIds);
+        for (int from = 0; from < ids.size(); from += maxSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + maxSize, ids.size()));
+            batchSize.record(chunk.size());
+            try {
+                // Pedidos de um usuário só: sem token de serviço vale o token dele
+                List<VehicleAPIClient.VehicleStatus> found = batchTimer.record(
+                        () -> vehicleAPIClient.findVehiclesByIds(bearer(serviceTokens.accessToken()), chunk));
+                if (found == null) continue;
+                for (VehicleAPIClient.VehicleStatus v : found) {
+                    result.found().put(v.id(), new VehicleAPIClient.Vehicle(v.status()));
+                }
+            } catch (RuntimeException e) {
+                chunk.forEach(id -> result.failed().put(id, e));
+            }
+        }
+        return result;
+    }
+
+    private void awaitWindow(Batch batch) {
+        try {
+            batch.full.await(window.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        lock.lock();
+        try {
+            if (current == batch) current = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Mesmo com um id só a chamada vai pelo /batch: outras threads podem estar esperando o mesmo veículo
+    private void execute(Batch batch, String authorization) {
+        Map<Long, CompletableFuture<VehicleAPIClient.Vehicle>> pending = batch.pending;
+        batchSize.record(pending.size());
+        try {
+            if (authorization == null) {
+                throw new VehicleServiceUnavailableException("Token de serviço indisponível para a busca em lote");
+            }
+
+            List<VehicleAPIClient.VehicleStatus> found = batchTimer.record(
+                    () -> vehicleAPIClient.findVehiclesByIds(authorization, pending.keySet()));
+
+            Map<Long, VehicleAPIClient.Vehicle> byId = new HashMap<>();
+            if (found != null) {
+                for (VehicleAPIClient.VehicleStatus v : found) {
+                    byId.put(v.id(), new VehicleAPIClient.Vehicle(v.status()));
+                }
+            }
+            // Quem não voltou não existe: mesmo comportamento do findVehicleById retornando null
+            pending.forEach((id, future) -> future.complete(byId.get(id)));
+        } catch (RuntimeException e) {
+            pending.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private static String bearer(String token) {
+        return token == null ? null : "Bearer " + token;
+    }
+
+    private static final class Batch {
+        // Só é alterado com o lock do batcher; a líder lê depois de desligar o lote
+        final Map<Long, CompletableFuture<VehicleAPIClient.Vehicle>> pending = new LinkedHashMap<>();
+        final CountDownLatch full = new CountDownLatch(1);
+    }
+}
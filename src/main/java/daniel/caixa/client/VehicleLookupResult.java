@@ -0,0 +1,20 @@
+package daniel.caixa.client;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Resultado da busca de vários veículos: os encontrados e, por id, o erro de quem não pôde ser consultado.
+// Id fora dos dois mapas é veículo que não existe.
+public record VehicleLookupResult(Map<Long, VehicleAPIClient.Vehicle> found, Map<Long, RuntimeException> failed) {
+
+    public VehicleLookupResult() {
+        this(new HashMap<>(), new HashMap<>());
+    }
+
+    // Veículo do id (null se não existe) ou o erro da consulta dele
+    public VehicleAPIClient.Vehicle get(Long vehicleId) {
+        RuntimeException error = failed.get(vehicleId);
+        if (error != null) throw error;
+        return found.get(vehicleId);
+    }
+}
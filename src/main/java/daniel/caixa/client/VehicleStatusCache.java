@@ -0,0 +1,142 @@
+package daniel.caixa.client;
+
+import daniel.caixa.exception.VehicleServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Status dos veículos com TTL curto na frente do vehicles-ms.
+// Chamadas concorrentes para o mesmo veículo esperam a mesma carga, então N reservas
+// simultâneas geram uma única chamada ao upstream.
+// Com o circuito do vehicles-ms aberto, responde com o último status conhecido do veículo;
+// sem status conhecido, a reserva falha com 503 em vez de esperar o upstream.
+@ApplicationScoped
+public class VehicleStatusCache {
+
+    static final String CACHE_NAME = "vehicle-status-cache";
+
+    @Inject
+    VehicleLookupBatcher batcher;
+
+    @Inject
+    @RestClient
+    ReactiveVehicleAPIClient reactiveClient;
+
+    @Inject
+    @CacheName(CACHE_NAME)
+    Cache cache;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    // Último status lido de cada veículo, sem expiração: só é usado com o circuito aberto
+    private final ConcurrentHashMap<Long, VehicleAPIClient.Vehicle> lastKnown = new ConcurrentHashMap<>();
+
+    private Timer upstreamTimer;
+    private Counter staleCounter;
+
+    @PostConstruct
+    void init() {
+        upstreamTimer = Timer.builder("vehicles.client.find")
+                .description("Latência do GET /vehicles/{id} no vehicles-ms")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        staleCounter = Counter.builder("vehicles.client.stale")
+                .description("Status de veículo servido do último valor conhecido com o circuito aberto")
+                .register(meterRegistry);
+    }
+
+    public VehicleAPIClient.Vehicle find(Long vehicleId) {
+        return cache.get(vehicleId, this::fetch).await().indefinitely();
+    }
+
+    // Modo reativo: a carga também é compartilhada entre chamadas concorrentes
+    public Uni<VehicleAPIClient.Vehicle> findAsync(Long vehicleId) {
+        return cache.getAsync(vehicleId, id -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return reactiveClient.findVehicleById(id)
+                    .onTermination().invoke(() -> sample.stop(upstreamTimer))
+                    .invoke(vehicle -> remember(id, vehicle))
+                    .onFailure(CircuitBreakerOpenException.class).recoverWithItem(e -> stale(id, e));
+        });
+    }
+
+    // Lote de veículos: o que está no cache sai dele, o resto vem numa busca só e passa a ser cacheado.
+    // Falhas do vehicles-ms ficam por veículo no resultado, para o lote não cair inteiro
+    public VehicleLookupResult findAll(Collection<Long> vehicleIds) {
+        CaffeineCache caffeine = cache.as(CaffeineCache.class);
+        VehicleLookupResult result = new VehicleLookupResult();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : vehicleIds) {
+            CompletableFuture<VehicleAPIClient.Vehicle> cached = caffeine.getIfPresent(id);
+            if (cached != null && cached.isDone() && !cached.isCompletedExceptionally() && cached.join() != null) {
+                result.found().put(id, cached.join());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) return result;
+
+        VehicleLookupResult fetched = upstreamTimer.record(() -> batcher.findAll(missing));
+        fetched.found().forEach((id, vehicle) -> {
+            caffeine.put(id, CompletableFuture.completedFuture(vehicle));
+            remember(id, vehicle);
+        });
+        result.found().putAll(fetched.found());
+
+        fetched.failed().forEach((id, error) -> {
+            if (!(error instanceof CircuitBreakerOpenException)) {
+                result.failed().put(id, error);
+                return;
+            }
+            try {
+                result.found().put(id, stale(id, error));
+            } catch (VehicleServiceUnavailableException e) {
+                result.failed().put(id, e);
+            }
+        });
+        return result;
+    }
+
+    public Uni<Void> invalidate(Long vehicleId) {
+        return cache.invalidate(vehicleId);
+    }
+
+    private VehicleAPIClient.Vehicle fetch(Long vehicleId) {
+        try {
+            VehicleAPIClient.Vehicle vehicle = upstreamTimer.record(() -> batcher.find(vehicleId));
+            remember(vehicleId, vehicle);
+            return vehicle;
+        } catch (CircuitBreakerOpenException e) {
+            return stale(vehicleId, e);
+        }
+    }
+
+    private void remember(Long vehicleId, VehicleAPIClient.Vehicle vehicle) {
+        if (vehicle != null) lastKnown.put(vehicleId, vehicle);
+    }
+
+    private VehicleAPIClient.Vehicle stale(Long vehicleId, Throwable cause) {
+        VehicleAPIClient.Vehicle vehicle = lastKnown.get(vehicleId);
+        if (vehicle == null) {
+            throw new VehicleServiceUnavailableException("vehicles-ms indisponível", cause);
+        }
+        staleCounter.increment();
+        return vehicle;
+    }
+}
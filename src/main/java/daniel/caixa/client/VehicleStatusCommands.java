@@ -0,0 +1,28 @@
+package daniel.caixa.client;
+
+import daniel.caixa.entity.VehicleStatusCommand;
+import daniel.caixa.repository.VehicleStatusCommandRepository;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+// Enfileira mudanças de status de veículo na transação corrente; quem fala com o vehicles-ms
+// é o VehicleStatusDispatcher, depois do commit. Assim nenhuma transação de reserva espera a rede.
+@ApplicationScoped
+public class VehicleStatusCommands {
+
+    public static final String AVAILABLE = "AVAILABLE";
+
+    @Inject
+    VehicleStatusCommandRepository repository;
+
+    public void enqueue(Long vehicleId, String status) {
+        repository.persist(new VehicleStatusCommand(vehicleId, status));
+    }
+
+    public Uni<Void> enqueueAsync(Long vehicleId, String status) {
+        VehicleStatusCommand command = new VehicleStatusCommand(vehicleId, status);
+        return Panache.getSession().chain(session -> session.persist(command));
+    }
+}
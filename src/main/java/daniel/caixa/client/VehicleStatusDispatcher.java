@@ -0,0 +1,140 @@
+package daniel.caixa.client;
+
+import daniel.caixa.entity.VehicleStatusCommand;
+import daniel.caixa.exception.VehicleNotFoundException;
+import daniel.caixa.repository.VehicleStatusCommandRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Envia ao vehicles-ms os comandos de vehicle_status_command.
+// Cada lote é reservado numa transação curta (attempts+1 e nextAttemptAt = agora + lease) e as
+// chamadas HTTP acontecem fora dela; se a réplica cair no meio, o comando volta depois do lease.
+// Falhas reagendam com backoff exponencial e jitter; o Idempotency-Key é o mesmo em todas as tentativas.
+@ApplicationScoped
+public class VehicleStatusDispatcher {
+
+    @Inject
+    @RestClient
+    VehicleAPIClient vehicleAPIClient;
+
+    @Inject
+    VehicleStatusCache vehicleStatusCache;
+
+    @Inject
+    VehicleStatusCommandRepository repository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "booking.vehicle-command.batch-size", defaultValue = "50")
+    int batchSize;
+
+    @ConfigProperty(name = "booking.vehicle-command.lease", defaultValue = "60s")
+    Duration lease;
+
+    @ConfigProperty(name = "booking.vehicle-command.initial-backoff", defaultValue = "1s")
+    Duration initialBackoff;
+
+    @ConfigProperty(name = "booking.vehicle-command.max-backoff", defaultValue = "5m")
+    Duration maxBackoff;
+
+    private Counter sentCounter;
+    private Counter failedCounter;
+    private Counter droppedCounter;
+    private Timer lagTimer;
+
+    @PostConstruct
+    void init() {
+        sentCounter = Counter.builder("booking.vehicle-command.sent")
+                .description("Comandos de status aceitos pelo vehicles-ms")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("booking.vehicle-command.failed")
+                .description("Tentativas que falharam e foram reagendadas")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("booking.vehicle-command.dropped")
+                .description("Comandos descartados porque o veículo não existe mais")
+                .register(meterRegistry);
+        lagTimer = Timer.builder("booking.vehicle-command.lag")
+                .description("Tempo entre o enfileiramento e a confirmação do vehicles-ms")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Scheduled(every = "${booking.vehicle-command.poll-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void dispatch() {
+        try {
+            List<VehicleStatusCommand> claimed;
+            do {
+                claimed = QuarkusTransaction.requiringNew().call(this::claimBatch);
+                claimed.forEach(this::send);
+            } while (claimed.size() == batchSize);
+        } catch (Exception e) {
+            Log.warn("Falha ao ler a fila de comandos de status de veículo", e);
+        }
+    }
+
+    List<VehicleStatusCommand> claimBatch() {
+        List<VehicleStatusCommand> due = repository.lockDue(batchSize);
+        Instant leaseUntil = Instant.now().plus(lease);
+        for (VehicleStatusCommand command : due) {
+            command.setAttempts(command.getAttempts() + 1);
+            command.setNextAttemptAt(leaseUntil);
+        }
+        return due;
+    }
+
+    private void send(VehicleStatusCommand command) {
+        try {
+            vehicleAPIClient.updateStatus(command.getVehicleId(), command.getIdempotencyKey(),
+                    new VehicleAPIClient.Vehicle(command.getStatus()));
+            complete(command);
+            sentCounter.increment();
+            lagTimer.record(Duration.between(command.getCreatedAt(), Instant.now()));
+        } catch (VehicleNotFoundException e) {
+            Log.warnf("Veículo %d não existe no vehicles-ms; comando %d descartado",
+                    command.getVehicleId(), command.getId());
+            complete(command);
+            droppedCounter.increment();
+        } catch (RuntimeException e) {
+            Duration delay = backoff(command.getAttempts());
+            Log.warnf("Comando %d (veículo %d) falhou na tentativa %d; nova tentativa em %s: %s",
+                    command.getId(), command.getVehicleId(), command.getAttempts(), delay, e.getMessage());
+            QuarkusTransaction.requiringNew().run(() -> repository.reschedule(
+                    command.getId(), Instant.now().plus(delay), truncate(e.getMessage())));
+            failedCounter.increment();
+        }
+    }
+
+    private void complete(VehicleStatusCommand command) {
+        QuarkusTransaction.requiringNew().run(() -> repository.deleteById(command.getId()));
+        vehicleStatusCache.invalidate(command.getVehicleId()).await().indefinitely();
+    }
+
+    // initial * 2^(tentativa-1), limitado a max, com jitter de até 50% para baixo
+    Duration backoff(int attempts) {
+        long initial = initialBackoff.toMillis();
+        long max = maxBackoff.toMillis();
+        int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        long delay = Math.min(max, initial << shift);
+        return Duration.ofMillis(delay - ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+
+    private static String truncate(String message) {
+        if (message == null) return null;
+        return message.length() <= 512 ? message : message.substring(0, 512);
+    }
+}
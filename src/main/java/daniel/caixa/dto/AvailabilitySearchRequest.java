@@ -0,0 +1,8 @@
+package daniel.caixa.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// onlyAvailable = devolve só os veículos livres no período inteiro
+public record AvailabilitySearchRequest(List<Long> vehicleIds, LocalDate from, LocalDate to, boolean onlyAvailable) {
+}
@@ -0,0 +1,8 @@
+package daniel.caixa.dto;
+
+import daniel.caixa.exception.ErrorResponse;
+
+// Resultado de cada pedido do lote, na mesma posição do pedido: status HTTP que o
+// POST /bookings teria devolvido, com a reserva criada ou o erro
+public record BookingBatchItemResponse(int index, int status, BookingResponse booking, ErrorResponse error) {
+}
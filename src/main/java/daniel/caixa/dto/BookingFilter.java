@@ -0,0 +1,17 @@
+package daniel.caixa.dto;
+
+import daniel.caixa.entity.BookingStatus;
+
+import java.time.LocalDate;
+
+// Filtros opcionais da listagem; from/to selecionam reservas que tocam o período
+public record BookingFilter(BookingStatus status, Long vehicleId, LocalDate from, LocalDate to) {
+
+    // Mesma regra do where montado no BookingRepository
+    public boolean matches(BookingResponse b) {
+        return (status == null || status == b.getStatus())
+                && (vehicleId == null || vehicleId.equals(b.getVehicleId()))
+                && (from == null || !b.getEndDate().isBefore(from))
+                && (to == null || !b.getStartDate().isAfter(to));
+    }
+}
@@ -12,6 +12,20 @@ public class BookingResponse {
     private LocalDate endDate;
     private BookingStatus status;
 
+    public BookingResponse() {
+    }
+
+    // Usado pelas projeções do Panache (select new): os nomes dos parâmetros precisam bater com os da entidade
+    public BookingResponse(Long id, Long vehicleId, String customerId, LocalDate startDate, LocalDate endDate,
+                           BookingStatus status) {
+        this.id = id;
+        this.vehicleId = vehicleId;
+        this.customerId = customerId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.status = status;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,7 @@
+package daniel.caixa.dto;
+
+import java.time.LocalDate;
+
+// Intervalo fechado [from, to]
+public record DateRange(LocalDate from, LocalDate to) {
+}
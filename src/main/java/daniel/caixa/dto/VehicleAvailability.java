@@ -0,0 +1,7 @@
+package daniel.caixa.dto;
+
+import java.util.List;
+
+// available = livre no período inteiro; free = trechos livres dentro do período consultado
+public record VehicleAvailability(Long vehicleId, boolean available, List<DateRange> free) {
+}
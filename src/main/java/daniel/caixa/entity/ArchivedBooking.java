@@ -0,0 +1,64 @@
+package daniel.caixa.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+
+// Reserva movida para a tabela fria booking_archive (particionada por mês de startDate). Só leitura.
+@Entity
+@Immutable
+@Table(name = "booking_archive")
+public class ArchivedBooking {
+
+    @Id
+    private Long id;
+
+    private Long vehicleId;
+    private String customerId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    private LocalDate activatedAt;
+    private LocalDate finishedAt;
+    private LocalDate canceledAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getActivatedAt() {
+        return activatedAt;
+    }
+
+    public LocalDate getFinishedAt() {
+        return finishedAt;
+    }
+
+    public LocalDate getCanceledAt() {
+        return canceledAt;
+    }
+}
@@ -7,7 +7,7 @@ import java.time.LocalDate;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BookingId
     private Long id;
 
     private Long vehicleId;
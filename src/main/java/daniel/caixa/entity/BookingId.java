@@ -0,0 +1,19 @@
+package daniel.caixa.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+// Id gerado em memória antes do insert (pooled-lo sobre a sequence ou time-ordered, ver BookingIdSource),
+// o que deixa o Hibernate agrupar os inserts em batch
+@IdGeneratorType(BookingIdGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface BookingId {
+
+    String sequence() default "booking_seq";
+}
@@ -0,0 +1,29 @@
+package daniel.caixa.entity;
+
+import io.quarkus.arc.Arc;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+public class BookingIdGenerator implements BeforeExecutionGenerator {
+
+    private final String sequence;
+
+    public BookingIdGenerator(BookingId config) {
+        this.sequence = config.sequence();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return Arc.container().instance(BookingIdSource.class).get().next(sequence);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
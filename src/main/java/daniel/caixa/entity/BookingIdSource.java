@@ -0,0 +1,157 @@
+package daniel.caixa.entity;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fonte dos ids de Booking (booking.id.strategy):
+// - sequence: pooled-lo. Cada nextval reserva allocation-size ids, entregues em memória sem ir ao banco;
+//   o increment da sequence no Postgres precisa ser igual a booking.id.allocation-size.
+//   Padrão do modo bloqueante. No modo reativo a busca de um bloco novo seria JDBC bloqueante na
+//   thread de I/O, então lá a aplicação não sobe com sequence.
+// - time-ordered: 64 bits gerados no processo = 41 bits de ms desde 2024-01-01, 10 bits de nó e
+//   12 bits de contador. Nunca vai ao banco; crescem com o tempo e ficam acima de qualquer id da sequence.
+//   Padrão do modo reativo. Exige booking.id.node-id único por réplica: nós repetidos geram ids repetidos.
+//   Só vale trocar de sequence para time-ordered: voltar faria ids novos ficarem antes dos antigos.
+// @Startup cria o bean na subida: configuração inválida derruba a aplicação, não o primeiro insert.
+@Startup
+@ApplicationScoped
+public class BookingIdSource {
+
+    static final String SEQUENCE = "sequence";
+    static final String TIME_ORDERED = "time-ordered";
+
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @ConfigProperty(name = "booking.id.strategy")
+    Optional<String> configuredStrategy;
+
+    @ConfigProperty(name = "booking.reactive.enabled", defaultValue = "false")
+    boolean reactive;
+
+    @ConfigProperty(name = "booking.id.allocation-size", defaultValue = "50")
+    int allocationSize;
+
+    @ConfigProperty(name = "booking.id.node-id")
+    Optional<Integer> configuredNodeId;
+
+    private String strategy;
+
+    // ReentrantLock em vez de synchronized para não prender virtual threads ao carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // sequence: ids livres em [next, hi)
+    private long next;
+    private long hi;
+    private boolean incrementChecked;
+
+    // time-ordered
+    private long nodeId;
+    private long lastMillis = -1;
+    private long counter;
+
+    @PostConstruct
+    void init() {
+        strategy = configuredStrategy.orElse(reactive ? TIME_ORDERED : SEQUENCE);
+        if (!SEQUENCE.equals(strategy) && !TIME_ORDERED.equals(strategy)) {
+            throw new IllegalArgumentException("booking.id.strategy inválido: " + strategy);
+        }
+        if (reactive && SEQUENCE.equals(strategy)) {
+            throw new IllegalStateException("booking.id.strategy=sequence não é suportado com booking.reactive.enabled=true;"
+                    + " use time-ordered");
+        }
+        if (TIME_ORDERED.equals(strategy)) {
+            nodeId = configuredNodeId.orElseThrow(() -> new IllegalStateException(
+                    "booking.id.node-id é obrigatório com booking.id.strategy=time-ordered (único por réplica)"));
+            if (nodeId < 0 || nodeId >= (1 << NODE_BITS)) {
+                throw new IllegalArgumentException("booking.id.node-id deve estar entre 0 e " + ((1 << NODE_BITS) - 1));
+            }
+        }
+    }
+
+    public long next(String sequence) {
+        lock.lock();
+        try {
+            return TIME_ORDERED.equals(strategy) ? nextTimeOrdered() : nextFromSequence(sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long nextFromSequence(String sequence) {
+        if (next == hi) {
+            long lo = fetchBlock(sequence);
+            next = lo;
+            hi = lo + allocationSize;
+        }
+        return next++;
+    }
+
+    private long fetchBlock(String sequence) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!incrementChecked) {
+                checkIncrement(connection, sequence);
+                incrementChecked = true;
+            }
+            try (PreparedStatement st = connection.prepareStatement("select nextval(?::regclass)")) {
+                st.setString(1, sequence);
+                try (ResultSet rs = st.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao reservar ids em " + sequence, e);
+        }
+    }
+
+    // Com increment diferente do allocation-size dois nós poderiam receber blocos sobrepostos
+    private void checkIncrement(Connection connection, String sequence) throws SQLException {
+        try (PreparedStatement st = connection.prepareStatement(
+                "select increment_by from pg_sequences where sequencename = ?")) {
+            st.setString(1, sequence);
+            try (ResultSet rs = st.executeQuery()) {
+                if (rs.next() && rs.getLong(1) != allocationSize) {
+                    throw new IllegalStateException("A sequence " + sequence + " incrementa de " + rs.getLong(1)
+                            + " mas booking.id.allocation-size=" + allocationSize);
+                }
+            }
+        }
+    }
+
+    private long nextTimeOrdered() {
+        // Relógio que volta não gera id repetido: continua no último ms até ele passar
+        long now = Math.max(System.currentTimeMillis(), lastMillis);
+        if (now == lastMillis) {
+            counter = (counter + 1) & COUNTER_MASK;
+            if (counter == 0) {
+                // 4096 ids no mesmo ms: espera o próximo
+                while (now <= lastMillis) {
+                    Thread.onSpinWait();
+                    now = System.currentTimeMillis();
+                }
+            }
+        } else {
+            counter = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH) << (NODE_BITS + COUNTER_BITS)) | (nodeId << COUNTER_BITS) | counter;
+    }
+}
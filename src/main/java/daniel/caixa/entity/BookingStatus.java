@@ -1,5 +1,9 @@
 package daniel.caixa.entity;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum BookingStatus {
     CREATED,
     RENTED,
@@ -7,7 +11,8 @@ public enum BookingStatus {
     CANCELED,
     FINISHED;
 
-}
-
-
+    // Status em que a reserva ocupa o veículo: bloqueia novas reservas no período e conta como
+    // ocupação na disponibilidade. Igual ao predicado da constraint booking_no_overlap (V10)
+    public static final Set<BookingStatus> BLOCKING = Collections.unmodifiableSet(EnumSet.of(CREATED, RENTED, ACTIVE));
 
+}
@@ -0,0 +1,70 @@
+package daniel.caixa.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Canal de saída do SmallRye (ex.: reserva-ativa-out)
+    private String channel;
+    private String messageKey;
+    // BookingEvent já serializado (json ou avro); nulo = tombstone
+    private byte[] payload;
+    private Instant createdAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String channel, String messageKey, byte[] payload) {
+        this.channel = channel;
+        this.messageKey = messageKey;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public String getMessageKey() {
+        return messageKey;
+    }
+
+    public void setMessageKey(String messageKey) {
+        this.messageKey = messageKey;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -4,6 +4,7 @@ import io.quarkus.logging.Log;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +20,12 @@ public class GlobalExceptionMapper implements ExceptionMapper<Exception> {
 
         Log.error(e);
 
+        return toErrorResponse(e);
+    }
+
+    // Também usado para os itens com erro do POST /bookings/batch
+    public static Response toErrorResponse(Exception e) {
+
         ErrorResponse error;
 
         if (e instanceof VehicleNotFoundException) {
@@ -46,6 +53,17 @@ public class GlobalExceptionMapper implements ExceptionMapper<Exception> {
             return Response.status(Response.Status.CONFLICT).entity(error).build();
         }
 
+        if (e instanceof ServiceOverloadedException) {
+            error = new ErrorResponse("SERVICE OVERLOADED", e.getMessage());
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity(error).build();
+        }
+
+        // Timeout, bulkhead cheio ou circuito aberto na chamada ao vehicles-ms
+        if (e instanceof VehicleServiceUnavailableException || e instanceof FaultToleranceException) {
+            error = new ErrorResponse("VEHICLE SERVICE UNAVAILABLE", e.getMessage());
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity(error).build();
+        }
+
         // fallback genérico
         error = new ErrorResponse(LocalDateTime.now(), "UNKNOWN ERROR", e.getMessage());
 
@@ -0,0 +1,11 @@
+package daniel.caixa.exception;
+
+public class VehicleServiceUnavailableException extends RuntimeException {
+    public VehicleServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public VehicleServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,34 @@
+package daniel.caixa.kafka;
+
+import daniel.caixa.entity.Booking;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Evento publicado a cada transição de uma reserva. Desacopla o contrato dos tópicos
+// da entidade JPA; o schema Avro correspondente fica em avro/booking-event.avsc.
+// eventId é gerado antes da gravação no outbox, então o reenvio do mesmo evento repete o id:
+// é a chave de deduplicação dos consumidores (a entrega é at-least-once).
+public record BookingEvent(
+        String eventId,
+        Long bookingId,
+        Long vehicleId,
+        String customerId,
+        LocalDate startDate,
+        LocalDate endDate,
+        String status,
+        Instant occurredAt) {
+
+    public static BookingEvent of(Booking booking) {
+        return new BookingEvent(
+                UUID.randomUUID().toString(),
+                booking.getId(),
+                booking.getVehicleId(),
+                booking.getCustomerId(),
+                booking.getStartDate(),
+                booking.getEndDate(),
+                booking.getStatus() == null ? null : booking.getStatus().name(),
+                Instant.now());
+    }
+}
@@ -0,0 +1,92 @@
+package daniel.caixa.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.avro.AvroMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroSchema;
+import com.fasterxml.jackson.dataformat.avro.jsr310.AvroJavaTimeModule;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+// Serializa os eventos com ObjectWriters montados uma única vez (ObjectWriter é imutável e
+// thread-safe). O BookingEvent do booking-state sai em json (padrão) ou avro (binário, schema
+// local em avro/booking-event.avsc, sem schema registry); o ObjectReader correspondente é usado
+// pela projeção do booking-state. Os tópicos reserva-* recebem sempre o ReservaPayload em json,
+// com datas como arrays, o formato que os consumidores desses tópicos já leem.
+@ApplicationScoped
+public class BookingEventSerializer {
+
+    public static final String JSON = "json";
+    public static final String AVRO = "avro";
+
+    static final String SCHEMA_RESOURCE = "avro/booking-event.avsc";
+
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final ObjectWriter reservaWriter;
+
+    @Inject
+    public BookingEventSerializer(ObjectMapper objectMapper,
+                                  @ConfigProperty(name = "booking.events.format", defaultValue = JSON) String format) {
+        this.reservaWriter = objectMapper.writerFor(ReservaPayload.class)
+                .with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        switch (format) {
+            case JSON -> {
+                this.writer = objectMapper.writerFor(BookingEvent.class);
+                this.reader = objectMapper.readerFor(BookingEvent.class);
+            }
+            case AVRO -> {
+                AvroMapper mapper = AvroMapper.builder()
+                        .addModule(new AvroJavaTimeModule())
+                        .build();
+                AvroSchema schema = loadSchema();
+                this.writer = mapper.writerFor(BookingEvent.class).with(schema);
+                this.reader = mapper.readerFor(BookingEvent.class).with(schema);
+            }
+            default -> throw new IllegalArgumentException("booking.events.format inválido: " + format);
+        }
+    }
+
+    public byte[] serialize(BookingEvent event) {
+        try {
+            return writer.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar BookingEvent", e);
+        }
+    }
+
+    public byte[] serialize(ReservaPayload payload) {
+        try {
+            return reservaWriter.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar ReservaPayload", e);
+        }
+    }
+
+    public BookingEvent deserialize(byte[] payload) {
+        try {
+            return reader.readValue(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("Erro ao ler BookingEvent", e);
+        }
+    }
+
+    private static AvroSchema loadSchema() {
+        try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(SCHEMA_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Schema não encontrado: " + SCHEMA_RESOURCE);
+            }
+            return new AvroSchema(new org.apache.avro.Schema.Parser().parse(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
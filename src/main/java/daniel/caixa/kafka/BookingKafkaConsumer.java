@@ -1,24 +1,60 @@
 package daniel.caixa.kafka;
 
+import daniel.caixa.dto.BookingResponse;
+import daniel.caixa.entity.BookingStatus;
+import daniel.caixa.service.BookingReadModel;
+import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
 
-//PARA TESTAR SE AS MENSAGENS ESTÃO SENDO ENVIADAS
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Projeta o tópico booking-state no BookingReadModel, um lote de registros por vez.
+// O lote só é confirmado depois que o método retorna, então o offset nunca passa
+// de um evento que ainda não foi aplicado. Registro sem valor é o tombstone de uma reserva arquivada.
 @ApplicationScoped
 public class BookingKafkaConsumer {
 
-    @Incoming("reserva-ativa-in")
-    public void onReservaAtiva(String payload) {
-        System.out.println("Mensagem recebida em reserva-ativa: " + payload);
-    }
+    @Inject
+    BookingReadModel readModel;
+
+    @Inject
+    BookingEventSerializer serializer;
+
+    @Incoming("booking-state-in")
+    public void project(List<ConsumerRecord<String, byte[]>> records) {
+        List<BookingResponse> bookings = new ArrayList<>(records.size());
+        List<Long> removed = new ArrayList<>();
+        Map<Integer, Long> lastOffsets = new HashMap<>();
 
-    @Incoming("reserva-concluida-in")
-    public void onReservaConcluida(String payload) {
-        System.out.println("Mensagem recebida em reserva-concluida: " + payload);
+        for (ConsumerRecord<String, byte[]> record : records) {
+            lastOffsets.merge(record.partition(), record.offset(), Math::max);
+            if (record.value() == null) {
+                if (record.key() != null) removed.add(Long.valueOf(record.key()));
+                continue;
+            }
+            try {
+                bookings.add(toResponse(serializer.deserialize(record.value())));
+            } catch (RuntimeException e) {
+                Log.warnf(e, "Evento ilegível em booking-state (partição %d, offset %d)", record.partition(), record.offset());
+            }
+        }
+        readModel.applyAll(bookings, removed, lastOffsets);
     }
 
-    @Incoming("reserva-cancelada-in")
-    public void onReservaCancelada(String payload) {
-        System.out.println("Mensagem recebida em reserva-cancelada: " + payload);
+    private static BookingResponse toResponse(BookingEvent event) {
+        BookingResponse dto = new BookingResponse();
+        dto.setId(event.bookingId());
+        dto.setVehicleId(event.vehicleId());
+        dto.setCustomerId(event.customerId());
+        dto.setStartDate(event.startDate());
+        dto.setEndDate(event.endDate());
+        dto.setStatus(event.status() == null ? null : BookingStatus.valueOf(event.status()));
+        return dto;
     }
 }
@@ -1,47 +1,114 @@
 package daniel.caixa.kafka;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import daniel.caixa.entity.Booking;
+import daniel.caixa.entity.OutboxEvent;
+import daniel.caixa.repository.OutboxRepository;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import org.eclipse.microprofile.reactive.messaging.Channel;
-import org.eclipse.microprofile.reactive.messaging.Emitter;
 
+// Os eventos não vão direto para o Kafka: são gravados no outbox dentro da transação da
+// reserva e o OutboxRelay envia depois do commit. Rollback não gera evento fantasma e
+// um broker lento não segura a transação.
+// Toda mudança, inclusive a criação, também vai para o tópico compactado booking-state,
+// chaveado pelo id da reserva, que guarda o estado atual de cada reserva.
+// Os payloads são diferentes: reserva-* mantém o contrato antigo (ReservaPayload, sempre json);
+// booking-state é um contrato novo (BookingEvent, no formato de booking.events.format).
+// booking.kafka.enqueue mede a gravação no outbox; o envio ao broker fica em booking.outbox.send.
 @ApplicationScoped
 public class BookingKafkaProducer {
 
-    @Inject
-    @Channel("reserva-ativa-out")
-    Emitter<String> reservaAtivaEmitter;
+    public static final String RESERVA_ATIVA = "reserva-ativa-out";
+    public static final String RESERVA_CONCLUIDA = "reserva-concluida-out";
+    public static final String RESERVA_CANCELADA = "reserva-cancelada-out";
+    public static final String BOOKING_STATE = "booking-state-out";
 
     @Inject
-    @Channel("reserva-concluida-out")
-    Emitter<String> reservaConcluidaEmitter;
+    OutboxRepository outboxRepository;
 
     @Inject
-    @Channel("reserva-cancelada-out")
-    Emitter<String> reservaCanceladaEmitter;
+    BookingEventSerializer serializer;
+
 
+    @Timed(value = "booking.kafka.enqueue", histogram = true)
+    public void sendReservaCriada(Booking booking) {
+        enqueue(booking, null);
+    }
 
+    @Timed(value = "booking.kafka.enqueue", histogram = true)
     public void sendReservaAtiva(Booking booking) {
-        reservaAtivaEmitter.send(toJson(booking));
+        enqueue(booking, RESERVA_ATIVA);
     }
 
+    @Timed(value = "booking.kafka.enqueue", histogram = true)
     public void sendReservaConcluida(Booking booking) {
-        reservaConcluidaEmitter.send(toJson(booking));
+        enqueue(booking, RESERVA_CONCLUIDA);
     }
 
+    @Timed(value = "booking.kafka.enqueue", histogram = true)
     public void sendReservaCancelada(Booking booking) {
-        reservaCanceladaEmitter.send(toJson(booking));
+        enqueue(booking, RESERVA_CANCELADA);
+    }
+
+    // Reserva movida para a booking_archive: tombstone no booking-state, que a compactação apaga
+    @Timed(value = "booking.kafka.enqueue", histogram = true)
+    public void sendReservaArquivada(Long bookingId) {
+        outboxRepository.persist(new OutboxEvent(BOOKING_STATE, bookingId.toString(), null));
+    }
+
+    // Versões do modo reativo: gravam no outbox pela sessão reativa da transação corrente
+    public Uni<Void> sendReservaCriadaAsync(Booking booking) {
+        return enqueueAsync(booking, null);
+    }
+
+    public Uni<Void> sendReservaAtivaAsync(Booking booking) {
+        return enqueueAsync(booking, RESERVA_ATIVA);
     }
 
-    private String toJson(Booking booking) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.findAndRegisterModules(); // para datas
-            return mapper.writeValueAsString(booking);
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao serializar Booking", e);
+    public Uni<Void> sendReservaConcluidaAsync(Booking booking) {
+        return enqueueAsync(booking, RESERVA_CONCLUIDA);
+    }
+
+    public Uni<Void> sendReservaCanceladaAsync(Booking booking) {
+        return enqueueAsync(booking, RESERVA_CANCELADA);
+    }
+
+    // transitionChannel null = só o booking-state (criação não tem tópico próprio)
+    private void enqueue(Booking booking, String transitionChannel) {
+        BookingEvent event = BookingEvent.of(booking);
+        if (transitionChannel != null) {
+            outboxRepository.persist(transition(booking, event, transitionChannel));
         }
+        outboxRepository.persist(state(booking, event));
+    }
+
+    private Uni<Void> enqueueAsync(Booking booking, String transitionChannel) {
+        BookingEvent event = BookingEvent.of(booking);
+        OutboxEvent state = state(booking, event);
+        return Panache.getSession().chain(session -> transitionChannel == null
+                ? session.persist(state)
+                : session.persistAll(transition(booking, event, transitionChannel), state));
+    }
+
+    // Mesmo eventId nos dois tópicos: é o mesmo evento, em dois contratos
+    private OutboxEvent transition(Booking booking, BookingEvent event, String channel) {
+        return new OutboxEvent(channel, vehicleKey(booking),
+                serializer.serialize(ReservaPayload.of(booking, event.eventId())));
+    }
+
+    private OutboxEvent state(Booking booking, BookingEvent event) {
+        return new OutboxEvent(BOOKING_STATE, bookingKey(booking), serializer.serialize(event));
+    }
+
+    // Tópicos de transição: chave = id do veículo, todos os eventos de um veículo na mesma partição, em ordem
+    private static String vehicleKey(Booking booking) {
+        return booking.getVehicleId() == null ? null : booking.getVehicleId().toString();
+    }
+
+    // booking-state: chave = id da reserva, a compactação mantém só o último estado de cada uma
+    private static String bookingKey(Booking booking) {
+        return booking.getId() == null ? null : booking.getId().toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package daniel.caixa.kafka;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.common.annotation.Identifier;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Garante que o booking-state exista como tópico compactado. Com auto-create do broker
+// ele nasceria com cleanup.policy=delete e perderia o estado antigo das reservas.
+@ApplicationScoped
+public class BookingStateTopicInitializer {
+
+    @Inject
+    @Identifier("default-kafka-broker")
+    Map<String, Object> kafkaConfig;
+
+    @ConfigProperty(name = "booking.state-topic.name", defaultValue = "booking-state")
+    String topic;
+
+    @ConfigProperty(name = "booking.state-topic.partitions", defaultValue = "3")
+    int partitions;
+
+    @ConfigProperty(name = "booking.state-topic.replication-factor", defaultValue = "1")
+    short replicationFactor;
+
+    void createTopic(@Observes StartupEvent event) {
+        NewTopic newTopic = new NewTopic(topic, partitions, replicationFactor)
+                .configs(Map.of(
+                        TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT,
+                        TopicConfig.MIN_COMPACTION_LAG_MS_CONFIG, "60000"));
+
+        try (AdminClient admin = AdminClient.create(kafkaConfig)) {
+            admin.createTopics(List.of(newTopic)).all().get(30, TimeUnit.SECONDS);
+            Log.infof("Tópico compactado %s criado", topic);
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof TopicExistsException)) {
+                Log.warnf(e.getCause(), "Não foi possível criar o tópico %s", topic);
+            }
+        } catch (Exception e) {
+            Log.warnf(e, "Não foi possível criar o tópico %s", topic);
+        }
+    }
+}
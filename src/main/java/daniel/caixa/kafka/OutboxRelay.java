@@ -0,0 +1,158 @@
+package daniel.caixa.kafka;
+
+import daniel.caixa.entity.OutboxEvent;
+import daniel.caixa.repository.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.reactive.messaging.MutinyEmitter;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.OnOverflow;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Drena o outbox em lotes para os tópicos reserva-* e booking-state, na ordem de gravação.
+// Um lote só sai do outbox depois que o broker confirma todas as mensagens. A entrega é at-least-once:
+// se algum ack falha o lote inteiro volta e é reenviado, inclusive as mensagens já entregues, e o
+// enable.idempotence do producer não evita isso (só cobre os retries internos dele). Os consumidores
+// deduplicam pelo eventId do BookingEvent, que vai gravado no payload e é o mesmo em todo reenvio.
+// Só o relay usa os emitters, então um broker lento segura o scheduler, nunca uma thread HTTP.
+@ApplicationScoped
+public class OutboxRelay {
+
+    // Um lote inteiro precisa caber no buffer do emitter, senão o envio falha por overflow
+    static final int EMITTER_BUFFER = 1024;
+
+    @Inject
+    @Channel(BookingKafkaProducer.RESERVA_ATIVA)
+    @OnOverflow(value = OnOverflow.Strategy.BUFFER, bufferSize = EMITTER_BUFFER)
+    MutinyEmitter<byte[]> reservaAtivaEmitter;
+
+    @Inject
+    @Channel(BookingKafkaProducer.RESERVA_CONCLUIDA)
+    @OnOverflow(value = OnOverflow.Strategy.BUFFER, bufferSize = EMITTER_BUFFER)
+    MutinyEmitter<byte[]> reservaConcluidaEmitter;
+
+    @Inject
+    @Channel(BookingKafkaProducer.RESERVA_CANCELADA)
+    @OnOverflow(value = OnOverflow.Strategy.BUFFER, bufferSize = EMITTER_BUFFER)
+    MutinyEmitter<byte[]> reservaCanceladaEmitter;
+
+    @Inject
+    @Channel(BookingKafkaProducer.BOOKING_STATE)
+    @OnOverflow(value = OnOverflow.Strategy.BUFFER, bufferSize = EMITTER_BUFFER)
+    MutinyEmitter<byte[]> bookingStateEmitter;
+
+    @Inject
+    OutboxRepository repository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "booking.outbox.batch-size", defaultValue = "200")
+    int batchSize;
+
+    @ConfigProperty(name = "booking.outbox.send-timeout", defaultValue = "30s")
+    Duration sendTimeout;
+
+    private Map<String, MutinyEmitter<byte[]>> emitters;
+    private final Map<String, Timer> sendTimers = new HashMap<>();
+    private final Map<String, Timer> lagTimers = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        emitters = Map.of(
+                BookingKafkaProducer.RESERVA_ATIVA, reservaAtivaEmitter,
+                BookingKafkaProducer.RESERVA_CONCLUIDA, reservaConcluidaEmitter,
+                BookingKafkaProducer.RESERVA_CANCELADA, reservaCanceladaEmitter,
+                BookingKafkaProducer.BOOKING_STATE, bookingStateEmitter);
+
+        if (batchSize > EMITTER_BUFFER) {
+            Log.warnf("booking.outbox.batch-size=%d maior que o buffer do emitter; usando %d", batchSize, EMITTER_BUFFER);
+            batchSize = EMITTER_BUFFER;
+        }
+
+        for (String channel : emitters.keySet()) {
+            sendTimers.put(channel, Timer.builder("booking.outbox.send")
+                    .description("Tempo entre o envio ao producer e o ack do broker")
+                    .tag("channel", channel)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            lagTimers.put(channel, Timer.builder("booking.outbox.lag")
+                    .description("Tempo entre a gravação no outbox e o ack do broker")
+                    .tag("channel", channel)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    @Scheduled(every = "${booking.outbox.poll-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void relay() {
+        try {
+            int sent;
+            do {
+                sent = QuarkusTransaction.requiringNew().call(this::relayBatch);
+            } while (sent == batchSize);
+        } catch (Exception e) {
+            // O lote volta para o outbox no rollback e é reenviado na próxima rodada
+            Log.warn("Falha ao enviar eventos do outbox para o Kafka", e);
+        }
+    }
+
+    int relayBatch() {
+        if (!repository.tryLockRelay()) return 0;
+
+        List<OutboxEvent> batch = repository.findNextBatch(batchSize);
+        if (batch.isEmpty()) return 0;
+
+        // As mensagens são inscritas em ordem, então saem para o producer na ordem do outbox
+        List<Uni<Void>> acks = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            acks.add(send(event));
+        }
+        Uni.join().all(acks).andFailFast().await().atMost(sendTimeout);
+
+        repository.deleteByIds(batch.stream().map(OutboxEvent::getId).toList());
+        return batch.size();
+    }
+
+    private Uni<Void> send(OutboxEvent event) {
+        MutinyEmitter<byte[]> emitter = emitters.get(event.getChannel());
+        if (emitter == null) {
+            return Uni.createFrom().failure(
+                    new IllegalStateException("Canal desconhecido no outbox: " + event.getChannel()));
+        }
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return emitter.sendMessage(toMessage(event))
+                    .invoke(() -> {
+                        sendTimers.get(event.getChannel()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        lagTimers.get(event.getChannel()).record(Duration.between(event.getCreatedAt(), Instant.now()));
+                    });
+        });
+    }
+
+    // Payload nulo vira um registro com valor nulo (tombstone) no Kafka
+    private static Message<byte[]> toMessage(OutboxEvent event) {
+        Message<byte[]> message = Message.of(event.getPayload());
+        if (event.getMessageKey() == null) return message;
+        return message.addMetadata(OutgoingKafkaRecordMetadata.<String>builder()
+                .withKey(event.getMessageKey())
+                .build());
+    }
+}
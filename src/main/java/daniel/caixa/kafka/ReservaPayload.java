@@ -0,0 +1,36 @@
+package daniel.caixa.kafka;
+
+import daniel.caixa.entity.Booking;
+
+import java.time.LocalDate;
+
+// Contrato dos tópicos reserva-*: os mesmos campos da entidade Booking que eram publicados antes
+// do outbox (id, datas de ativação/conclusão/cancelamento), com LocalDate como [ano,mês,dia].
+// eventId é o único campo novo (deduplicação, igual ao do BookingEvent); consumidores que
+// rejeitam campos desconhecidos precisam ignorá-lo.
+public record ReservaPayload(
+        Long id,
+        Long vehicleId,
+        String customerId,
+        LocalDate startDate,
+        LocalDate endDate,
+        String status,
+        LocalDate activatedAt,
+        LocalDate finishedAt,
+        LocalDate canceledAt,
+        String eventId) {
+
+    public static ReservaPayload of(Booking booking, String eventId) {
+        return new ReservaPayload(
+                booking.getId(),
+                booking.getVehicleId(),
+                booking.getCustomerId(),
+                booking.getStartDate(),
+                booking.getEndDate(),
+                booking.getStatus() == null ? null : booking.getStatus().name(),
+                booking.getActivatedAt(),
+                booking.getFinishedAt(),
+                booking.getCanceledAt(),
+                eventId);
+    }
+}
@@ -0,0 +1,37 @@
+package daniel.caixa.kafka;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import daniel.caixa.client.VehicleStatusCache;
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+
+// Mudanças de status publicadas pelo vehicles-ms derrubam a entrada do cache de status
+@ApplicationScoped
+public class VehicleStatusConsumer {
+
+    @Inject
+    VehicleStatusCache vehicleStatusCache;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Incoming("vehicle-status-in")
+    public Uni<Void> onVehicleStatus(String payload) {
+        try {
+            JsonNode node = objectMapper.readTree(payload);
+            JsonNode id = node.hasNonNull("vehicleId") ? node.get("vehicleId") : node.get("id");
+            if (id == null || !id.canConvertToLong()) {
+                Log.warnf("Mensagem de status de veículo sem id: %s", payload);
+                return Uni.createFrom().voidItem();
+            }
+            return vehicleStatusCache.invalidate(id.asLong());
+        } catch (Exception e) {
+            Log.warnf(e, "Mensagem de status de veículo inválida: %s", payload);
+            return Uni.createFrom().voidItem();
+        }
+    }
+}
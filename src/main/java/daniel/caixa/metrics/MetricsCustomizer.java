@@ -0,0 +1,50 @@
+package daniel.caixa.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+
+// Filtros aplicados a todas as métricas exportadas em /q/metrics:
+// tag "application" comum e histogramas (para p95/p99 no Prometheus) nos timers HTTP,
+// de chamadas ao vehicles-ms e nos booking.*, vehicles.* criados no código.
+@Singleton
+public class MetricsCustomizer {
+
+    private static final List<String> HISTOGRAM_PREFIXES = List.of(
+            "http.server.requests", "http.client.requests", "booking.", "vehicles.");
+
+    @ConfigProperty(name = "quarkus.application.name", defaultValue = "booking-ms")
+    String applicationName;
+
+    @Produces
+    @Singleton
+    MeterFilter commonTags() {
+        return MeterFilter.commonTags(List.of(Tag.of("application", applicationName)));
+    }
+
+    @Produces
+    @Singleton
+    MeterFilter histograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER || HISTOGRAM_PREFIXES.stream().noneMatch(id.getName()::startsWith)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofNanos(100).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(30).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package daniel.caixa.repository;
+
+import daniel.caixa.entity.ArchivedBooking;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+
+@ApplicationScoped
+public class ArchivedBookingRepository implements PanacheRepository<ArchivedBooking> {
+
+    // Chave do advisory lock que elege uma única réplica para arquivar
+    private static final long ARCHIVER_LOCK_KEY = 0x61726368697665L;
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    public boolean tryLockArchiver() {
+        return (Boolean) getEntityManager()
+                .createNativeQuery("select pg_try_advisory_xact_lock(?1)")
+                .setParameter(1, ARCHIVER_LOCK_KEY)
+                .getSingleResult();
+    }
+
+    // Reservas encerradas antes do corte, travadas até o fim da transação.
+    // Devolve [id, startDate, endDate, vehicleId, customerId, status].
+    @SuppressWarnings("unchecked")
+    public List<Object[]> lockArchivable(LocalDate cutoff, int limit) {
+        return getEntityManager().createNativeQuery("""
+                        select id, startDate, endDate, vehicleId, customerId, status from booking
+                        where status in ('FINISHED', 'CANCELED')
+                          and coalesce(finishedAt, canceledAt, endDate) < ?1
+                        order by id
+                        limit ?2
+                        for update skip locked""")
+                .setParameter(1, cutoff)
+                .setParameter(2, limit)
+                .getResultList();
+    }
+
+    // Partição mensal [mês, mês + 1); sem partição default, então ela tem que existir antes do insert
+    public void ensurePartition(LocalDate month) {
+        LocalDate first = month.withDayOfMonth(1);
+        getEntityManager().createNativeQuery("create table if not exists booking_archive_"
+                        + PARTITION_SUFFIX.format(first) + " partition of booking_archive"
+                        + " for values from ('" + first + "') to ('" + first.plusMonths(1) + "')")
+                .executeUpdate();
+    }
+
+    // Apaga da tabela quente e grava na fria no mesmo comando
+    public int moveToArchive(Collection<Long> ids) {
+        return getEntityManager().createNativeQuery("""
+                        with moved as (
+                            delete from booking where id in (:ids)
+                            returning id, vehicleId, customerId, startDate, endDate, status,
+                                      activatedAt, finishedAt, canceledAt
+                        )
+                        insert into booking_archive (id, vehicleId, customerId, startDate, endDate, status,
+                                                     activatedAt, finishedAt, canceledAt)
+                        select * from moved""")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    // O filtro por startDate deixa o Postgres ler só as partições dos meses pedidos
+    public List<ArchivedBooking> findByPeriod(LocalDate from, LocalDate to, long after, int limit) {
+        return find("startDate >= ?1 and startDate <= ?2 and id > ?3", Sort.by("id"), from, to, after)
+                .range(0, limit - 1)
+                .list();
+    }
+}
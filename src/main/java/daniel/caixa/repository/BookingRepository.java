@@ -1,34 +1,115 @@
 package daniel.caixa.repository;
 
+import daniel.caixa.dto.BookingFilter;
+import daniel.caixa.dto.BookingResponse;
 import daniel.caixa.entity.Booking;
 import daniel.caixa.entity.BookingStatus;
+import io.micrometer.core.annotation.Timed;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.jpa.HibernateHints;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class BookingRepository implements PanacheRepository<Booking> {
 
+    private static final int STREAM_FETCH_SIZE = 500;
+
     public Booking findActiveByVehicleId(Long vehicleId) {
         return find("vehicleId = ?1 and status = ?2", vehicleId, BookingStatus.RENTED)
                 .firstResult();
     }
 
-    public boolean hasDateConflict(Long vehicleId, LocalDate startDate, LocalDate endDate) {
-        return count("vehicleId = ?1 and status = ?2 and startDate <= ?3 and endDate >= ?4",
-                vehicleId, BookingStatus.RENTED, endDate, startDate) > 0;
+    // Checagem autoritativa de conflito, usada com o lock do veículo ligado (deploys sem a constraint)
+    @Timed(value = "booking.conflict.query", histogram = true)
+    public boolean hasDateConflict(Long vehicleId, Collection<BookingStatus> statuses,
+                                   LocalDate startDate, LocalDate endDate) {
+        return count("vehicleId = ?1 and status in ?2 and startDate <= ?3 and endDate >= ?4",
+                vehicleId, statuses, endDate, startDate) > 0;
+    }
+
+    // Projeções das listagens: select new BookingResponse(...) direto do banco, sem entidade
+    // gerenciada, snapshot de dirty-checking nem crescimento do contexto de persistência
+    public List<BookingResponse> findResponsesByCustomerId(String customerId) {
+        return find("customerId", Sort.by("id"), customerId)
+                .project(BookingResponse.class)
+                .list();
+    }
+
+    public Optional<BookingResponse> findResponseById(Long id) {
+        return find("id", id).project(BookingResponse.class).firstResultOptional();
+    }
+
+    public List<Booking> findByStatusIn(Collection<BookingStatus> statuses) {
+        return list("status in ?1", statuses);
     }
 
-    public List<Booking> findByCustomerId(String customerId) {
-        return list("customerId", customerId);
+    // Reservas que podem conflitar com qualquer pedido de um lote: uma consulta só para todos os veículos
+    @Timed(value = "booking.conflict.query", histogram = true)
+    public List<Booking> findOverlapping(Collection<Long> vehicleIds, Collection<BookingStatus> statuses,
+                                         LocalDate startDate, LocalDate endDate) {
+        return list("vehicleId in ?1 and status in ?2 and startDate <= ?3 and endDate >= ?4",
+                vehicleIds, statuses, endDate, startDate);
+    }
+
+    public void refresh(Booking booking) {
+        getEntityManager().refresh(booking);
     }
 
     public Optional<Booking> findByIdAndCustomer(Long id, String customerId) {
         return find("id = ?1 and customerId = ?2", id, customerId).firstResultOptional();
     }
 
-}
+    // Paginação por cursor: a próxima página começa no primeiro id maior que "after"
+    public List<BookingResponse> findResponsePage(BookingFilter filter, long after, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        return find(where(filter, after, params), Sort.by("id"), params)
+                .project(BookingResponse.class)
+                .range(0, limit - 1)
+                .list();
+    }
 
+    // Cursor do Hibernate sobre o resultado; precisa rodar dentro de uma transação.
+    // Como é projeção, nada entra no contexto de persistência e não há o que desanexar
+    public Stream<BookingResponse> streamAll(BookingFilter filter) {
+        Map<String, Object> params = new HashMap<>();
+        return find(where(filter, 0, params), Sort.by("id"), params)
+                .project(BookingResponse.class)
+                .withHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .stream();
+    }
+
+    static String where(BookingFilter filter, long after, Map<String, Object> params) {
+        StringJoiner where = new StringJoiner(" and ");
+        if (after > 0) {
+            where.add("id > :after");
+            params.put("after", after);
+        }
+        if (filter.status() != null) {
+            where.add("status = :status");
+            params.put("status", filter.status());
+        }
+        if (filter.vehicleId() != null) {
+            where.add("vehicleId = :vehicleId");
+            params.put("vehicleId", filter.vehicleId());
+        }
+        if (filter.from() != null) {
+            where.add("endDate >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            where.add("startDate <= :to");
+            params.put("to", filter.to());
+        }
+        return where.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package daniel.caixa.repository;
+
+import daniel.caixa.entity.OutboxEvent;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Collection;
+import java.util.List;
+
+@ApplicationScoped
+public class OutboxRepository implements PanacheRepository<OutboxEvent> {
+
+    // Chave do advisory lock que elege uma única réplica para drenar o outbox
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+
+    // Só uma réplica envia por vez, senão dois lotes concorrentes quebrariam a ordem por chave
+    public boolean tryLockRelay() {
+        return (Boolean) getEntityManager()
+                .createNativeQuery("select pg_try_advisory_xact_lock(?1)")
+                .setParameter(1, RELAY_LOCK_KEY)
+                .getSingleResult();
+    }
+
+    public List<OutboxEvent> findNextBatch(int size) {
+        return findAll(Sort.by("id")).page(0, size).list();
+    }
+
+    public long deleteByIds(Collection<Long> ids) {
+        return delete("id in ?1", ids);
+    }
+}
@@ -0,0 +1,36 @@
+package daniel.caixa.repository;
+
+import daniel.caixa.dto.BookingFilter;
+import daniel.caixa.dto.BookingResponse;
+import daniel.caixa.entity.Booking;
+import io.quarkus.hibernate.reactive.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Mesmas consultas do BookingRepository sobre o Hibernate Reactive (modo booking.reactive.enabled)
+@ApplicationScoped
+public class ReactiveBookingRepository implements PanacheRepository<Booking> {
+
+    public Uni<List<BookingResponse>> findResponsesByCustomerId(String customerId) {
+        return find("customerId", Sort.by("id"), customerId)
+                .project(BookingResponse.class)
+                .list();
+    }
+
+    public Uni<BookingResponse> findResponseById(Long id) {
+        return find("id", id).project(BookingResponse.class).firstResult();
+    }
+
+    public Uni<List<BookingResponse>> findResponsePage(BookingFilter filter, long after, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        return find(BookingRepository.where(filter, after, params), Sort.by("id"), params)
+                .project(BookingResponse.class)
+                .range(0, limit - 1)
+                .list();
+    }
+}
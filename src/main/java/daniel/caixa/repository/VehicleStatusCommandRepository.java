@@ -0,0 +1,29 @@
+package daniel.caixa.repository;
+
+import daniel.caixa.entity.VehicleStatusCommand;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Instant;
+import java.util.List;
+
+@ApplicationScoped
+public class VehicleStatusCommandRepository implements PanacheRepository<VehicleStatusCommand> {
+
+    // Comandos vencidos; SKIP LOCKED deixa cada réplica com um conjunto diferente
+    @SuppressWarnings("unchecked")
+    public List<VehicleStatusCommand> lockDue(int limit) {
+        return getEntityManager().createNativeQuery("""
+                        select * from vehicle_status_command
+                        where nextAttemptAt <= now()
+                        order by id
+                        limit ?1
+                        for update skip locked""", VehicleStatusCommand.class)
+                .setParameter(1, limit)
+                .getResultList();
+    }
+
+    public void reschedule(Long id, Instant nextAttemptAt, String lastError) {
+        update("nextAttemptAt = ?1, lastError = ?2 where id = ?3", nextAttemptAt, lastError, id);
+    }
+}
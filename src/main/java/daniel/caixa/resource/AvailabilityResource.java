@@ -0,0 +1,91 @@
+package daniel.caixa.resource;
+
+import daniel.caixa.dto.AvailabilitySearchRequest;
+import daniel.caixa.dto.VehicleAvailability;
+import daniel.caixa.exception.InvalidReservationDateException;
+import daniel.caixa.service.VehicleAvailabilityIndex;
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Disponibilidade dos veículos a partir do calendário em memória; não toca no banco,
+// por isso roda direto na thread de I/O nos dois modos de execução.
+@ApplicationScoped
+@Path("/")
+@Produces(MediaType.APPLICATION_JSON)
+public class AvailabilityResource {
+
+    @Inject
+    VehicleAvailabilityIndex availability;
+
+    @ConfigProperty(name = "booking.availability.max-days", defaultValue = "366")
+    int maxDays;
+
+    @ConfigProperty(name = "booking.availability.max-vehicles", defaultValue = "10000")
+    int maxVehicles;
+
+    @GET
+    @RolesAllowed({"admin", "user"})
+    @NonBlocking
+    @Path("/vehicles/{id}/availability")
+    public Response vehicleAvailability(@PathParam("id") Long vehicleId,
+                                        @QueryParam("from") LocalDate from,
+                                        @QueryParam("to") LocalDate to) {
+        checkPeriod(from, to);
+        return Response.ok(availability.availability(vehicleId, from, to)).build();
+    }
+
+    @POST
+    @RolesAllowed({"admin", "user"})
+    @NonBlocking
+    @Path("/availability/search")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response search(AvailabilitySearchRequest request) {
+        if (request == null || request.vehicleIds() == null || request.vehicleIds().isEmpty()) {
+            throw new BadRequestException("Informe os vehicleIds");
+        }
+        if (request.vehicleIds().stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("vehicleIds não pode conter null");
+        }
+        if (request.vehicleIds().size() > maxVehicles) {
+            throw new BadRequestException("No máximo " + maxVehicles + " veículos por busca");
+        }
+        checkPeriod(request.from(), request.to());
+
+        List<VehicleAvailability> result = new ArrayList<>(request.vehicleIds().size());
+        for (Long vehicleId : request.vehicleIds()) {
+            if (request.onlyAvailable()) {
+                // Só monta os trechos livres de quem está livre no período todo
+                if (availability.isFree(vehicleId, request.from(), request.to())) {
+                    result.add(availability.availability(vehicleId, request.from(), request.to()));
+                }
+            } else {
+                result.add(availability.availability(vehicleId, request.from(), request.to()));
+            }
+        }
+        return Response.ok(result).build();
+    }
+
+    private void checkPeriod(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new InvalidReservationDateException("Informe as datas from e to");
+        }
+        if (to.isBefore(from)) {
+            throw new InvalidReservationDateException("A data final deve ser igual ou posterior à inicial");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new InvalidReservationDateException("Período maior que " + maxDays + " dias");
+        }
+    }
+}
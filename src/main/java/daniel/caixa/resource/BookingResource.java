@@ -1,10 +1,27 @@
 package daniel.caixa.resource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import daniel.caixa.dto.BookingBatchItemResponse;
+import daniel.caixa.dto.BookingFilter;
 import daniel.caixa.dto.BookingRequest;
 import daniel.caixa.dto.BookingResponse;
-import daniel.caixa.entity.Booking;
+import daniel.caixa.entity.BookingStatus;
+import daniel.caixa.exception.ErrorResponse;
+import daniel.caixa.exception.GlobalExceptionMapper;
+import daniel.caixa.exception.InvalidReservationDateException;
 import daniel.caixa.mapper.BookingMapper;
+import daniel.caixa.service.BookingArchiveService;
+import daniel.caixa.service.BookingBatchResult;
+import daniel.caixa.service.BookingBatchService;
 import daniel.caixa.service.BookingService;
+import daniel.caixa.service.DatabaseConcurrencyLimiter;
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -12,84 +29,259 @@ import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.jwt.JsonWebToken;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @ApplicationScoped
 @Path("/bookings")
 @Consumes(MediaType.APPLICATION_JSON)
+@UnlessBuildProperty(name = "booking.reactive.enabled", stringValue = "true", enableIfMissing = true)
+// Os endpoints rodam em virtual threads; com quarkus.virtual-threads.enabled=false voltam para o worker pool.
+// Revisado para pinning: o driver JDBC do Postgres usa ReentrantLock, os emitters do Kafka não
+// bloqueiam e o código do serviço não usa synchronized.
 public class BookingResource {
 
+    static final String NDJSON = "application/x-ndjson";
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int STREAM_FLUSH_EVERY = 200;
+
     @Inject
     BookingService bookingService;
 
+    @Inject
+    BookingBatchService batchService;
+
+    @Inject
+    BookingArchiveService archiveService;
+
+    @Inject
+    DatabaseConcurrencyLimiter dbLimiter;
+
     BookingResponse bookingResponse;
 
     @Inject
     JsonWebToken jwt;
 
+    @Inject
+    SecurityIdentity identity;
+
     @Inject
     BookingMapper mapper;
 
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "booking.list.default-limit", defaultValue = "100")
+    int defaultLimit;
+
+    @ConfigProperty(name = "booking.list.max-limit", defaultValue = "1000")
+    int maxLimit;
+
+    @ConfigProperty(name = "booking.batch.max-size", defaultValue = "500")
+    int maxBatchSize;
+
+    // Página por cursor: o id da última reserva volta no header X-Next-Cursor e vira o "after" da próxima
     @GET
     @RolesAllowed("admin")
+    @RunOnVirtualThread
     @Path("/listall")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<BookingResponse> listAll() {
-        return bookingService.listAll();
+    public Response listAll(@QueryParam("after") @DefaultValue("0") long after,
+                            @QueryParam("limit") Integer limit,
+                            @QueryParam("status") BookingStatus status,
+                            @QueryParam("vehicleId") Long vehicleId,
+                            @QueryParam("from") LocalDate from,
+                            @QueryParam("to") LocalDate to) {
+        int pageSize = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        List<BookingResponse> page = dbLimiter.call(() -> bookingService.listAll(
+                new BookingFilter(status, vehicleId, from, to), after, pageSize));
+
+        Response.ResponseBuilder response = Response.ok(page);
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, page.get(page.size() - 1).getId());
+        }
+        return response.build();
+    }
+
+    // Reservas já arquivadas; from/to (startDate) são obrigatórios para ler só as partições do período
+    @GET
+    @RolesAllowed("admin")
+    @RunOnVirtualThread
+    @Path("/archive")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response listArchived(@QueryParam("from") LocalDate from,
+                                 @QueryParam("to") LocalDate to,
+                                 @QueryParam("after") @DefaultValue("0") long after,
+                                 @QueryParam("limit") Integer limit) {
+        if (from == null || to == null) {
+            throw new InvalidReservationDateException("Informe as datas from e to");
+        }
+        int pageSize = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        List<BookingResponse> page = dbLimiter.call(() -> archiveService.listArchived(from, to, after, pageSize));
+
+        Response.ResponseBuilder response = Response.ok(page);
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, page.get(page.size() - 1).getId());
+        }
+        return response.build();
+    }
+
+    @GET
+    @RolesAllowed("admin")
+    @RunOnVirtualThread
+    @Path("/listall/stream")
+    @Produces(NDJSON)
+    public StreamingOutput streamAllNdjson(@QueryParam("status") BookingStatus status,
+                                           @QueryParam("vehicleId") Long vehicleId,
+                                           @QueryParam("from") LocalDate from,
+                                           @QueryParam("to") LocalDate to) {
+        return streamBookings(new BookingFilter(status, vehicleId, from, to), false);
+    }
+
+    @GET
+    @RolesAllowed("admin")
+    @RunOnVirtualThread
+    @Path("/listall/stream")
+    @Produces(MediaType.APPLICATION_JSON)
+    public StreamingOutput streamAllJsonArray(@QueryParam("status") BookingStatus status,
+                                              @QueryParam("vehicleId") Long vehicleId,
+                                              @QueryParam("from") LocalDate from,
+                                              @QueryParam("to") LocalDate to) {
+        return streamBookings(new BookingFilter(status, vehicleId, from, to), true);
+    }
+
+    private StreamingOutput streamBookings(BookingFilter filter, boolean jsonArray) {
+        ObjectWriter writer = objectMapper.writerFor(BookingResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        return output -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(output)) {
+                gen.setRootValueSeparator(new SerializedString("\n"));
+                if (jsonArray) gen.writeStartArray();
+
+                int[] written = {0};
+                dbLimiter.run(() -> bookingService.streamAll(filter, booking -> {
+                    try {
+                        writer.writeValue(gen, booking);
+                        if (++written[0] % STREAM_FLUSH_EVERY == 0) gen.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+
+                if (jsonArray) {
+                    gen.writeEndArray();
+                } else if (written[0] > 0) {
+                    gen.writeRaw('\n');
+                }
+            }
+        };
     }
 
     @GET
     @RolesAllowed({"admin", "user"})
+    @RunOnVirtualThread
     @Path("/mybookings")
     @Produces(MediaType.APPLICATION_JSON)
     public Response listMyBookings() {
         String customerId = jwt.getSubject();
-        List<Booking> bookings = bookingService.listAllForCustomer(customerId);
-        List<BookingResponse> responses = bookings.stream()
-                .map(mapper::toResponse)
-                .toList();
+        List<BookingResponse> responses = dbLimiter.call(() -> bookingService.listAllForCustomer(customerId));
         return Response.ok(responses).build();
     }
 
+    // Admin vê qualquer reserva; o cliente só as próprias
+    @GET
+    @RolesAllowed({"admin", "user"})
+    @RunOnVirtualThread
+    @Path("/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response findById(@PathParam("id") Long id) {
+        String customerId = identity.hasRole("admin") ? null : jwt.getSubject();
+        BookingResponse booking = dbLimiter.call(() -> bookingService.findById(id, customerId));
+        return Response.ok(booking).build();
+    }
+
     @POST
     @RolesAllowed({"admin", "user"})
+    @RunOnVirtualThread
     @Produces(MediaType.TEXT_PLAIN)
     public Response create(@Valid BookingRequest dto) {
         String customerId = jwt.getSubject();
-        BookingResponse created = bookingService.create(dto, customerId);
+        BookingResponse created = dbLimiter.call(() -> bookingService.create(dto, customerId));
 //        return Response.status(Response.Status.CREATED).entity(bookingResponse).build();
         return Response.status(Response.Status.CREATED).entity("Reserva criada com sucesso!").build();
     }
 
+    // Lote de reservas do mesmo cliente; cada item volta com o próprio status (falha parcial)
+    @POST
+    @RolesAllowed({"admin", "user"})
+    @RunOnVirtualThread
+    @Path("/batch")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response createBatch(List<BookingRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("Informe ao menos uma reserva");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new BadRequestException("No máximo " + maxBatchSize + " reservas por lote");
+        }
+        String customerId = jwt.getSubject();
+        List<BookingBatchResult> results = dbLimiter.call(() -> batchService.create(requests, customerId));
+        return Response.ok(toBatchResponse(results)).build();
+    }
+
     @PATCH
     @RolesAllowed({"admin", "user"})
+    @RunOnVirtualThread
     @Path("/{id}/cancelBooking")
     @Produces(MediaType.TEXT_PLAIN)
     public Response alter(@PathParam("id") Long id) {
-        bookingService.cancelBooking(id);
+        dbLimiter.run(() -> bookingService.cancelBooking(id));
         return Response.ok().entity("Reserva cancelada com sucesso!").build();
     }
 
     @PATCH
     @RolesAllowed({"admin", "user"})
+    @RunOnVirtualThread
     @Path("/{id}/check-in")
     @Produces(MediaType.TEXT_PLAIN)
     public Response checkIn(@PathParam("id") Long id){
         String customerId = jwt.getSubject();
-        bookingService.vehicleCheckIn(id, customerId);
+        dbLimiter.run(() -> bookingService.vehicleCheckIn(id, customerId));
         return Response.ok().entity("Check-in iniciado com sucesso!").build();
     }
 
     @PATCH
     @RolesAllowed({"admin", "user"})
+    @RunOnVirtualThread
     @Path("/{id}/check-out")
     @Produces(MediaType.TEXT_PLAIN)
     public Response checkOut(@PathParam("id") Long id){
         String customerId = jwt.getSubject();
-        bookingService.vehicleCheckOut(id, customerId);
+        dbLimiter.run(() -> bookingService.vehicleCheckOut(id, customerId));
         return Response.ok().entity("Check-out realizado com sucesso!").build();
     }
 
+    static List<BookingBatchItemResponse> toBatchResponse(List<BookingBatchResult> results) {
+        List<BookingBatchItemResponse> items = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            BookingBatchResult result = results.get(i);
+            if (result.error() == null) {
+                items.add(new BookingBatchItemResponse(i, Response.Status.CREATED.getStatusCode(), result.booking(), null));
+            } else {
+                Response error = GlobalExceptionMapper.toErrorResponse(result.error());
+                items.add(new BookingBatchItemResponse(i, error.getStatus(), null, (ErrorResponse) error.getEntity()));
+            }
+        }
+        return items;
+    }
 }
-
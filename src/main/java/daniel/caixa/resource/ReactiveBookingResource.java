@@ -0,0 +1,201 @@
+package daniel.caixa.resource;
+
+import daniel.caixa.dto.BookingFilter;
+import daniel.caixa.dto.BookingRequest;
+import daniel.caixa.dto.BookingResponse;
+import daniel.caixa.entity.BookingStatus;
+import daniel.caixa.exception.InvalidReservationDateException;
+import daniel.caixa.service.BookingArchiveService;
+import daniel.caixa.service.BookingBatchResult;
+import daniel.caixa.service.BookingBatchService;
+import daniel.caixa.service.ReactiveBookingService;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Mesma API do BookingResource, servida na thread de I/O.
+// Entra no lugar dele quando o build roda com booking.reactive.enabled=true.
+@ApplicationScoped
+@Path("/bookings")
+@Consumes(MediaType.APPLICATION_JSON)
+@IfBuildProperty(name = "booking.reactive.enabled", stringValue = "true")
+public class ReactiveBookingResource {
+
+    @Inject
+    ReactiveBookingService bookingService;
+
+    @Inject
+    BookingBatchService batchService;
+
+    @Inject
+    BookingArchiveService archiveService;
+
+    @Inject
+    JsonWebToken jwt;
+
+    @Inject
+    SecurityIdentity identity;
+
+    @ConfigProperty(name = "booking.list.default-limit", defaultValue = "100")
+    int defaultLimit;
+
+    @ConfigProperty(name = "booking.list.max-limit", defaultValue = "1000")
+    int maxLimit;
+
+    @ConfigProperty(name = "booking.batch.max-size", defaultValue = "500")
+    int maxBatchSize;
+
+    @GET
+    @RolesAllowed("admin")
+    @Path("/listall")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> listAll(@QueryParam("after") @DefaultValue("0") long after,
+                                 @QueryParam("limit") Integer limit,
+                                 @QueryParam("status") BookingStatus status,
+                                 @QueryParam("vehicleId") Long vehicleId,
+                                 @QueryParam("from") LocalDate from,
+                                 @QueryParam("to") LocalDate to) {
+        int pageSize = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        return bookingService.listAll(new BookingFilter(status, vehicleId, from, to), after, pageSize)
+                .map(page -> {
+                    Response.ResponseBuilder response = Response.ok(page);
+                    if (page.size() == pageSize) {
+                        response.header(BookingResource.NEXT_CURSOR_HEADER, page.get(page.size() - 1).getId());
+                    }
+                    return response.build();
+                });
+    }
+
+    @GET
+    @RolesAllowed("admin")
+    @Path("/listall/stream")
+    @Produces(BookingResource.NDJSON)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<BookingResponse> streamAllNdjson(@QueryParam("status") BookingStatus status,
+                                                  @QueryParam("vehicleId") Long vehicleId,
+                                                  @QueryParam("from") LocalDate from,
+                                                  @QueryParam("to") LocalDate to) {
+        return bookingService.streamAll(new BookingFilter(status, vehicleId, from, to));
+    }
+
+    @GET
+    @RolesAllowed("admin")
+    @Path("/listall/stream")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Multi<BookingResponse> streamAllJsonArray(@QueryParam("status") BookingStatus status,
+                                                     @QueryParam("vehicleId") Long vehicleId,
+                                                     @QueryParam("from") LocalDate from,
+                                                     @QueryParam("to") LocalDate to) {
+        return bookingService.streamAll(new BookingFilter(status, vehicleId, from, to));
+    }
+
+    @GET
+    @RolesAllowed({"admin", "user"})
+    @Path("/mybookings")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> listMyBookings() {
+        return bookingService.listAllForCustomer(jwt.getSubject())
+                .map(responses -> Response.ok(responses).build());
+    }
+
+    // Admin vê qualquer reserva; o cliente só as próprias
+    @GET
+    @RolesAllowed({"admin", "user"})
+    @Path("/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> findById(@PathParam("id") Long id) {
+        String customerId = identity.hasRole("admin") ? null : jwt.getSubject();
+        return bookingService.findById(id, customerId)
+                .map(booking -> Response.ok(booking).build());
+    }
+
+    @POST
+    @RolesAllowed({"admin", "user"})
+    @Produces(MediaType.TEXT_PLAIN)
+    public Uni<Response> create(@Valid BookingRequest dto) {
+        return bookingService.create(dto, jwt.getSubject())
+                .map(created -> Response.status(Response.Status.CREATED).entity("Reserva criada com sucesso!").build());
+    }
+
+    // Consulta à tabela fria pelo caminho bloqueante, numa worker thread
+    @GET
+    @RolesAllowed("admin")
+    @Blocking
+    @Path("/archive")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response listArchived(@QueryParam("from") LocalDate from,
+                                 @QueryParam("to") LocalDate to,
+                                 @QueryParam("after") @DefaultValue("0") long after,
+                                 @QueryParam("limit") Integer limit) {
+        if (from == null || to == null) {
+            throw new InvalidReservationDateException("Informe as datas from e to");
+        }
+        int pageSize = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        List<BookingResponse> page = archiveService.listArchived(from, to, after, pageSize);
+
+        Response.ResponseBuilder response = Response.ok(page);
+        if (page.size() == pageSize) {
+            response.header(BookingResource.NEXT_CURSOR_HEADER, page.get(page.size() - 1).getId());
+        }
+        return response.build();
+    }
+
+    // O lote usa o caminho bloqueante (JDBC em batch) numa worker thread
+    @POST
+    @RolesAllowed({"admin", "user"})
+    @Blocking
+    @Path("/batch")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response createBatch(List<BookingRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("Informe ao menos uma reserva");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new BadRequestException("No máximo " + maxBatchSize + " reservas por lote");
+        }
+        List<BookingBatchResult> results = batchService.create(requests, jwt.getSubject());
+        return Response.ok(BookingResource.toBatchResponse(results)).build();
+    }
+
+    @PATCH
+    @RolesAllowed({"admin", "user"})
+    @Path("/{id}/cancelBooking")
+    @Produces(MediaType.TEXT_PLAIN)
+    public Uni<Response> alter(@PathParam("id") Long id) {
+        return bookingService.cancelBooking(id)
+                .map(ignored -> Response.ok().entity("Reserva cancelada com sucesso!").build());
+    }
+
+    @PATCH
+    @RolesAllowed({"admin", "user"})
+    @Path("/{id}/check-in")
+    @Produces(MediaType.TEXT_PLAIN)
+    public Uni<Response> checkIn(@PathParam("id") Long id) {
+        return bookingService.vehicleCheckIn(id, jwt.getSubject())
+                .map(ignored -> Response.ok().entity("Check-in iniciado com sucesso!").build());
+    }
+
+    @PATCH
+    @RolesAllowed({"admin", "user"})
+    @Path("/{id}/check-out")
+    @Produces(MediaType.TEXT_PLAIN)
+    public Uni<Response> checkOut(@PathParam("id") Long id) {
+        return bookingService.vehicleCheckOut(id, jwt.getSubject())
+                .map(ignored -> Response.ok().entity("Check-out realizado com sucesso!").build());
+    }
+}
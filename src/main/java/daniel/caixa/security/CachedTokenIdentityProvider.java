@@ -0,0 +1,40 @@
+package daniel.caixa.security;
+
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.request.TokenAuthenticationRequest;
+import io.smallrye.mutiny.Uni;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+// Roda antes do provider do quarkus-oidc: se o token já foi verificado, devolve a identidade
+// do VerifiedTokenCache; senão devolve null e o quarkus-oidc verifica normalmente.
+@ApplicationScoped
+public class CachedTokenIdentityProvider implements IdentityProvider<TokenAuthenticationRequest> {
+
+    @Inject
+    VerifiedTokenCache cache;
+
+    @Override
+    public Class<TokenAuthenticationRequest> getRequestType() {
+        return TokenAuthenticationRequest.class;
+    }
+
+    @Override
+    public int priority() {
+        return 1000;
+    }
+
+    @Override
+    public Uni<SecurityIdentity> authenticate(TokenAuthenticationRequest request, AuthenticationRequestContext context) {
+        long start = System.nanoTime();
+        RoutingContext routingContext = request.getAttribute(RoutingContext.class.getName());
+        SecurityIdentity identity = cache.lookup(request.getToken().getToken(), routingContext, start);
+        if (identity == null && routingContext != null) {
+            routingContext.put(VerifiedTokenCache.START_ATTRIBUTE, start);
+        }
+        return Uni.createFrom().item(identity);
+    }
+}
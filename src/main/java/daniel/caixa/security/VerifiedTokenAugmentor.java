@@ -0,0 +1,27 @@
+package daniel.caixa.security;
+
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.SecurityIdentityAugmentor;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+// Último augmentor a rodar: grava no VerifiedTokenCache a identidade já com todos os papéis
+@ApplicationScoped
+public class VerifiedTokenAugmentor implements SecurityIdentityAugmentor {
+
+    @Inject
+    VerifiedTokenCache cache;
+
+    @Override
+    public int priority() {
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public Uni<SecurityIdentity> augment(SecurityIdentity identity, AuthenticationRequestContext context) {
+        cache.remember(identity);
+        return Uni.createFrom().item(identity);
+    }
+}
@@ -0,0 +1,132 @@
+package daniel.caixa.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.quarkus.security.credential.TokenCredential;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.runtime.QuarkusSecurityIdentity;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Identidades já verificadas pelo quarkus-oidc, indexadas pelo SHA-256 do token bruto.
+// Um token repetido dentro da validade não passa de novo por parse e checagem de assinatura:
+// o CachedTokenIdentityProvider devolve a identidade daqui e o VerifiedTokenAugmentor a grava
+// depois da primeira verificação. Tamanho e tempo máximo ficam no cache "verified-token-cache".
+@ApplicationScoped
+public class VerifiedTokenCache {
+
+    static final String CACHE_NAME = "verified-token-cache";
+
+    // Marca a identidade que saiu do cache, para o augmentor não gravá-la de novo
+    static final String CACHED_ATTRIBUTE = "booking.auth.cached";
+    // Início da autenticação de um token fora do cache, guardado no RoutingContext
+    static final String START_ATTRIBUTE = "booking.auth.start";
+
+    private static final String ROUTING_CONTEXT_ATTRIBUTE = RoutingContext.class.getName();
+
+    @Inject
+    @CacheName(CACHE_NAME)
+    Cache cache;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "booking.auth.token-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    private Timer cachedTimer;
+    private Timer verifiedTimer;
+
+    @PostConstruct
+    void init() {
+        cachedTimer = timer("cached");
+        verifiedTimer = timer("verified");
+    }
+
+    private Timer timer(String source) {
+        return Timer.builder("booking.auth.verify")
+                .description("Tempo para autenticar o bearer token da requisição")
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Identidade para o token, ou null se ele ainda não foi verificado (ou já expirou)
+    SecurityIdentity lookup(String token, RoutingContext routingContext, long startNanos) {
+        if (!enabled || token == null) return null;
+
+        CompletableFuture<Entry> cached = cache.as(CaffeineCache.class).getIfPresent(hash(token));
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) return null;
+        Entry entry = cached.join();
+        if (entry == null || !Instant.now().isBefore(entry.expiresAt())) return null;
+
+        QuarkusSecurityIdentity.Builder builder = QuarkusSecurityIdentity.builder()
+                .setPrincipal(entry.identity().getPrincipal())
+                .addRoles(entry.identity().getRoles())
+                .addCredentials(entry.identity().getCredentials())
+                .addAttributes(entry.identity().getAttributes())
+                .addAttribute(CACHED_ATTRIBUTE, Boolean.TRUE);
+        if (routingContext != null) builder.addAttribute(ROUTING_CONTEXT_ATTRIBUTE, routingContext);
+        SecurityIdentity identity = builder.build();
+
+        cachedTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return identity;
+    }
+
+    // Chamado depois que o quarkus-oidc verificou o token
+    void remember(SecurityIdentity identity) {
+        if (identity.getAttribute(CACHED_ATTRIBUTE) != null) return;
+
+        RoutingContext routingContext = identity.getAttribute(ROUTING_CONTEXT_ATTRIBUTE);
+        if (routingContext != null && routingContext.get(START_ATTRIBUTE) instanceof Long start) {
+            verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (!enabled || identity.isAnonymous()) return;
+        TokenCredential credential = identity.getCredential(TokenCredential.class);
+        if (credential == null || credential.getToken() == null) return;
+        if (!(identity.getPrincipal() instanceof JsonWebToken jwt) || jwt.getExpirationTime() <= 0) return;
+
+        // Sem o RoutingContext da requisição original, que não pode sobreviver a ela
+        Map<String, Object> attributes = new HashMap<>(identity.getAttributes());
+        attributes.remove(ROUTING_CONTEXT_ATTRIBUTE);
+        SecurityIdentity detached = QuarkusSecurityIdentity.builder()
+                .setPrincipal(identity.getPrincipal())
+                .addRoles(identity.getRoles())
+                .addCredentials(identity.getCredentials())
+                .addAttributes(attributes)
+                .build();
+
+        Entry entry = new Entry(detached, Instant.ofEpochSecond(jwt.getExpirationTime()));
+        cache.as(CaffeineCache.class).put(hash(credential.getToken()), CompletableFuture.completedFuture(entry));
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    record Entry(SecurityIdentity identity, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,131 @@
+package daniel.caixa.service;
+
+import daniel.caixa.dto.BookingResponse;
+import daniel.caixa.entity.ArchivedBooking;
+import daniel.caixa.entity.BookingStatus;
+import daniel.caixa.kafka.BookingKafkaProducer;
+import daniel.caixa.repository.ArchivedBookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Mantém a tabela quente pequena: move em lotes as reservas FINISHED/CANCELED encerradas há mais
+// de booking.archive.retention-days para a booking_archive, particionada por mês.
+// Reservas arquivadas saem do /listall e do /mybookings: o BookingArchived limpa o modelo de leitura
+// e os caches desta réplica, e um tombstone no booking-state avisa o modelo de leitura das outras.
+// Continuam consultáveis em /bookings/archive.
+@ApplicationScoped
+public class BookingArchiveService {
+
+    @Inject
+    ArchivedBookingRepository repository;
+
+    @Inject
+    BookingKafkaProducer bookingKafkaProducer;
+
+    @Inject
+    Event<BookingArchived> bookingArchived;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "booking.archive.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "booking.archive.retention-days", defaultValue = "180")
+    int retentionDays;
+
+    @ConfigProperty(name = "booking.archive.batch-size", defaultValue = "1000")
+    int batchSize;
+
+    private Counter archived;
+
+    @PostConstruct
+    void init() {
+        archived = Counter.builder("booking.archive.moved")
+                .description("Reservas movidas para a booking_archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${booking.archive.cron}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void archive() {
+        if (!enabled) return;
+
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        long total = 0;
+        try {
+            int moved;
+            do {
+                moved = QuarkusTransaction.requiringNew().call(() -> archiveBatch(cutoff));
+                total += moved;
+            } while (moved == batchSize);
+        } catch (Exception e) {
+            Log.warn("Falha ao arquivar reservas; o lote volta na próxima execução", e);
+        }
+        if (total > 0) Log.infof("%d reservas encerradas antes de %s arquivadas", total, cutoff);
+    }
+
+    int archiveBatch(LocalDate cutoff) {
+        if (!repository.tryLockArchiver()) return 0;
+
+        List<Object[]> rows = repository.lockArchivable(cutoff, batchSize);
+        if (rows.isEmpty()) return 0;
+
+        Set<LocalDate> months = new LinkedHashSet<>();
+        List<BookingResponse> bookings = rows.stream().map(BookingArchiveService::toResponse).toList();
+        bookings.forEach(b -> months.add(b.getStartDate().withDayOfMonth(1)));
+        months.forEach(repository::ensurePartition);
+
+        List<Long> ids = bookings.stream().map(BookingResponse::getId).toList();
+        int moved = repository.moveToArchive(ids);
+        ids.forEach(bookingKafkaProducer::sendReservaArquivada);
+        bookingArchived.fire(new BookingArchived(bookings));
+        archived.increment(moved);
+        return rows.size();
+    }
+
+    public List<BookingResponse> listArchived(LocalDate from, LocalDate to, long after, int limit) {
+        return repository.findByPeriod(from, to, after, limit).stream()
+                .map(BookingArchiveService::toResponse)
+                .toList();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    // Linha do lockArchivable: [id, startDate, endDate, vehicleId, customerId, status]
+    private static BookingResponse toResponse(Object[] row) {
+        BookingResponse dto = new BookingResponse();
+        dto.setId(((Number) row[0]).longValue());
+        dto.setStartDate(toLocalDate(row[1]));
+        dto.setEndDate(row[2] == null ? null : toLocalDate(row[2]));
+        dto.setVehicleId(row[3] == null ? null : ((Number) row[3]).longValue());
+        dto.setCustomerId((String) row[4]);
+        dto.setStatus(BookingStatus.valueOf((String) row[5]));
+        return dto;
+    }
+
+    private static BookingResponse toResponse(ArchivedBooking b) {
+        BookingResponse dto = new BookingResponse();
+        dto.setId(b.getId());
+        dto.setVehicleId(b.getVehicleId());
+        dto.setCustomerId(b.getCustomerId());
+        dto.setStartDate(b.getStartDate());
+        dto.setEndDate(b.getEndDate());
+        dto.setStatus(b.getStatus());
+        return dto;
+    }
+}
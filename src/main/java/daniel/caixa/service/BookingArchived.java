@@ -0,0 +1,10 @@
+package daniel.caixa.service;
+
+import daniel.caixa.dto.BookingResponse;
+
+import java.util.List;
+
+// Evento CDI disparado quando um lote de reservas sai da tabela quente para a booking_archive.
+// Os estados derivados (modelo de leitura, caches) removem essas reservas.
+public record BookingArchived(List<BookingResponse> bookings) {
+}
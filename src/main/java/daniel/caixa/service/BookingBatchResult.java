@@ -0,0 +1,15 @@
+package daniel.caixa.service;
+
+import daniel.caixa.dto.BookingResponse;
+
+// Resultado de um pedido dentro de um POST /bookings/batch: a reserva criada ou o erro
+public record BookingBatchResult(BookingResponse booking, RuntimeException error) {
+
+    static BookingBatchResult created(BookingResponse booking) {
+        return new BookingBatchResult(booking, null);
+    }
+
+    static BookingBatchResult failed(RuntimeException error) {
+        return new BookingBatchResult(null, error);
+    }
+}
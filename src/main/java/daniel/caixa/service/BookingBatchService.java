@@ -0,0 +1,217 @@
+package daniel.caixa.service;
+
+import daniel.caixa.client.VehicleLookupResult;
+import daniel.caixa.client.VehicleStatusCache;
+import daniel.caixa.dto.BookingRequest;
+import daniel.caixa.dto.BookingResponse;
+import daniel.caixa.dto.DateRange;
+import daniel.caixa.entity.Booking;
+import daniel.caixa.entity.BookingStatus;
+import daniel.caixa.exception.InvalidReservationDateException;
+import daniel.caixa.kafka.BookingKafkaProducer;
+import daniel.caixa.mapper.BookingMapper;
+import daniel.caixa.repository.BookingRepository;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.function.IntConsumer;
+
+// Criação de reservas em lote (POST /bookings/batch). Cada etapa roda uma vez para o lote
+// inteiro: validação, busca dos veículos, consulta de conflitos e um insert em batch.
+// Os pedidos que falham voltam com o erro; os demais seguem.
+@ApplicationScoped
+public class BookingBatchService {
+
+    @Inject
+    BookingRepository repository;
+
+    @Inject
+    BookingMapper mapper;
+
+    @Inject
+    VehicleStatusCache vehicleStatusCache;
+
+    @Inject
+    VehicleLockManager vehicleLocks;
+
+    @Inject
+    BookingKafkaProducer bookingKafkaProducer;
+
+    @Inject
+    Event<BookingChanged> bookingChanged;
+
+    @Inject
+    Validator validator;
+
+    @Timed(value = "booking.service", histogram = true)
+    public List<BookingBatchResult> create(List<BookingRequest> requests, String customerId) {
+        BookingBatchResult[] results = new BookingBatchResult[requests.size()];
+
+        List<Integer> pending = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) pending.add(i);
+
+        pending = keep(pending, results, i -> checkRequest(requests.get(i)));
+
+        Set<Long> vehicleIds = new LinkedHashSet<>();
+        pending.forEach(i -> vehicleIds.add(requests.get(i).getVehicleId()));
+        // Veículo que não pôde ser consultado (vehicles-ms fora) falha só os pedidos dele
+        VehicleLookupResult vehicles = vehicleIds.isEmpty()
+                ? new VehicleLookupResult()
+                : vehicleStatusCache.findAll(vehicleIds);
+        pending = keep(pending, results, i -> BookingService.checkVehicle(vehicles.get(requests.get(i).getVehicleId())));
+
+        pending = rejectConflicts(requests, pending, results);
+
+        if (!pending.isEmpty()) insert(requests, pending, customerId, results);
+        return Arrays.asList(results);
+    }
+
+    // Uma consulta para as reservas de todos os veículos do lote, mais os conflitos entre os próprios pedidos
+    private List<Integer> rejectConflicts(List<BookingRequest> requests, List<Integer> pending,
+                                          BookingBatchResult[] results) {
+        if (pending.isEmpty()) return pending;
+
+        Map<Long, List<DateRange>> taken = takenPeriods(pending.stream().map(requests::get).toList());
+
+        return keep(pending, results, i -> {
+            BookingRequest dto = requests.get(i);
+            List<DateRange> periods = taken.computeIfAbsent(dto.getVehicleId(), k -> new ArrayList<>());
+            checkFree(periods, dto);
+            periods.add(new DateRange(dto.getStartDate(), dto.getEndDate()));
+        });
+    }
+
+    // Períodos já reservados dos veículos dos pedidos, numa consulta só
+    private Map<Long, List<DateRange>> takenPeriods(List<BookingRequest> dtos) {
+        Set<Long> vehicleIds = new LinkedHashSet<>();
+        LocalDate min = LocalDate.MAX;
+        LocalDate max = LocalDate.MIN;
+        for (BookingRequest dto : dtos) {
+            vehicleIds.add(dto.getVehicleId());
+            if (dto.getStartDate().isBefore(min)) min = dto.getStartDate();
+            if (dto.getEndDate().isAfter(max)) max = dto.getEndDate();
+        }
+
+        Map<Long, List<DateRange>> taken = new HashMap<>();
+        for (Booking b : repository.findOverlapping(vehicleIds, BookingStatus.BLOCKING, min, max)) {
+            taken.computeIfAbsent(b.getVehicleId(), k -> new ArrayList<>())
+                    .add(new DateRange(b.getStartDate(), b.getEndDate()));
+        }
+        return taken;
+    }
+
+    private static void checkFree(List<DateRange> periods, BookingRequest dto) {
+        for (DateRange p : periods) {
+            if (!p.from().isAfter(dto.getEndDate()) && !p.to().isBefore(dto.getStartDate())) {
+                throw new InvalidReservationDateException(BookingService.DATE_CONFLICT_MESSAGE);
+            }
+        }
+    }
+
+    private void insert(List<BookingRequest> requests, List<Integer> accepted, String customerId,
+                        BookingBatchResult[] results) {
+        try {
+            List<BookingRequest> dtos = accepted.stream().map(requests::get).toList();
+            List<BookingResponse> created = QuarkusTransaction.requiringNew().call(() -> insertAll(dtos, customerId));
+            for (int k = 0; k < accepted.size(); k++) {
+                results[accepted.get(k)] = BookingBatchResult.created(created.get(k));
+            }
+        } catch (RuntimeException e) {
+            // O lote voltou inteiro (ex.: outra reserva ganhou a corrida por um período);
+            // cada pedido é tentado na sua própria transação para isolar quem falhou
+            Log.debugf(e, "Insert em lote falhou, tentando %d reservas uma a uma", accepted.size());
+            for (int i : accepted) {
+                try {
+                    List<BookingRequest> single = List.of(requests.get(i));
+                    results[i] = BookingBatchResult.created(
+                            QuarkusTransaction.requiringNew().call(() -> insertAll(single, customerId)).get(0));
+                } catch (RuntimeException ex) {
+                    results[i] = BookingBatchResult.failed(ex);
+                }
+            }
+        }
+    }
+
+    private List<BookingResponse> insertAll(List<BookingRequest> dtos, String customerId) {
+        // Sempre na mesma ordem, para dois lotes com veículos em comum não travarem um ao outro
+        boolean locked = false;
+        for (Long vehicleId : dtos.stream().map(BookingRequest::getVehicleId).distinct().sorted().toList()) {
+            locked |= vehicleLocks.lockForTransaction(vehicleId);
+        }
+
+        // O rejectConflicts rodou antes do lock: com ele pego, confere de novo no banco o que outro
+        // lote ou reserva avulsa gravou nesse meio tempo (quem usa o lock pode não ter a constraint)
+        if (locked) {
+            Map<Long, List<DateRange>> taken = takenPeriods(dtos);
+            for (BookingRequest dto : dtos) {
+                checkFree(taken.getOrDefault(dto.getVehicleId(), List.of()), dto);
+            }
+        }
+
+        List<Booking> entities = dtos.stream().map(dto -> mapper.toEntity(dto, customerId)).toList();
+        try {
+            repository.persist(entities);
+            repository.flush();
+        } catch (PersistenceException e) {
+            if (BookingService.isOverlapViolation(e)) {
+                throw new InvalidReservationDateException(BookingService.DATE_CONFLICT_MESSAGE);
+            }
+            throw e;
+        }
+
+        List<BookingResponse> responses = new ArrayList<>(entities.size());
+        for (Booking entity : entities) {
+            bookingKafkaProducer.sendReservaCriada(entity);
+            BookingResponse response = mapper.toResponse(entity);
+            bookingChanged.fire(new BookingChanged(response, null));
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    // @Valid na lista recusaria o lote inteiro; aqui as constraints do BookingRequest
+    // (ex.: endDate @Future) valem por item, e só o pedido inválido volta com 400
+    private void checkRequest(BookingRequest dto) {
+        if (dto == null || dto.getVehicleId() == null || dto.getStartDate() == null || dto.getEndDate() == null) {
+            throw new InvalidReservationDateException("Informe vehicleId, startDate e endDate");
+        }
+        Set<ConstraintViolation<BookingRequest>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new InvalidReservationDateException(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        BookingService.checkDates(dto);
+    }
+
+    // Mantém os pedidos que passam na verificação; os outros recebem o erro como resultado
+    private static List<Integer> keep(List<Integer> pending, BookingBatchResult[] results, IntConsumer check) {
+        List<Integer> kept = new ArrayList<>(pending.size());
+        for (int i : pending) {
+            try {
+                check.accept(i);
+                kept.add(i);
+            } catch (RuntimeException e) {
+                results[i] = BookingBatchResult.failed(e);
+            }
+        }
+        return kept;
+    }
+}
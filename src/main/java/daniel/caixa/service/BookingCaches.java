@@ -0,0 +1,388 @@
+package daniel.caixa.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import daniel.caixa.dto.BookingFilter;
+import daniel.caixa.dto.BookingResponse;
+import daniel.caixa.entity.BookingStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.quarkus.logging.Log;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.redis.datasource.pubsub.PubSubCommands;
+import io.quarkus.redis.datasource.value.ValueCommands;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Caches de leitura das reservas, corrigidos entrada a entrada a cada mudança
+// em vez de descartados por inteiro.
+// L1 é o Caffeine local; as listas por cliente também ficam no Redis (L2), compartilhadas entre réplicas.
+// Cada mudança é publicada no Redis pub/sub para as outras réplicas corrigirem o seu L1.
+@ApplicationScoped
+public class BookingCaches {
+
+    static final String PAGE_CACHE = "booking-page-cache";
+    static final String CUSTOMER_CACHE = "customer-bookings-cache";
+    static final String BOOKING_CACHE = "booking-cache";
+
+    private static final int PATCH_STRIPES = 64;
+
+    private static final String CUSTOMER_KEY_PREFIX = "booking:customer:";
+    private static final String CUSTOMER_VERSION_PREFIX = "booking:customer:ver:";
+
+    // Invalidação: sobe a versão da chave e apaga a lista numa operação só
+    private static final String INVALIDATE_SCRIPT =
+            "redis.call('INCR', KEYS[1]) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+                    + "return redis.call('DEL', KEYS[2])";
+
+    // Gravação condicional: só grava se ninguém invalidou a chave desde a leitura da versão,
+    // senão uma leitura lenta do banco devolveria ao L2 a lista de antes da mudança
+    private static final String WRITE_IF_VERSION_SCRIPT =
+            "if (redis.call('GET', KEYS[1]) or '0') == ARGV[1] then "
+                    + "return redis.call('SET', KEYS[2], ARGV[2], 'EX', ARGV[3]) end "
+                    + "return false";
+
+    private static final TypeReference<List<BookingResponse>> BOOKING_LIST = new TypeReference<>() {
+    };
+
+    // Identifica esta réplica para ignorar as próprias mensagens do pub/sub
+    private final String origin = UUID.randomUUID().toString();
+
+    @Inject
+    @CacheName(PAGE_CACHE)
+    Cache pageCache;
+
+    @Inject
+    @CacheName(CUSTOMER_CACHE)
+    Cache customerCache;
+
+    @Inject
+    @CacheName(BOOKING_CACHE)
+    Cache bookingCache;
+
+    // getIfPresent -> patch -> put de uma chave não pode intercalar com outro patch da mesma chave
+    // (observador local e assinante do pub/sub rodam em threads diferentes). Seções curtas, sem I/O.
+    private final ReentrantLock[] patchLocks = new ReentrantLock[PATCH_STRIPES];
+
+    {
+        for (int i = 0; i < PATCH_STRIPES; i++) {
+            patchLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Inject
+    RedisDataSource redis;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Event<BookingChanged> bookingChanged;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "booking.cache.redis.enabled", defaultValue = "true")
+    boolean redisEnabled;
+
+    @ConfigProperty(name = "booking.cache.l2.ttl", defaultValue = "10M")
+    Duration l2Ttl;
+
+    @ConfigProperty(name = "booking.cache.sync-channel", defaultValue = "booking-cache-sync")
+    String syncChannel;
+
+    private ValueCommands<String, String> l2;
+    private PubSubCommands<String> sync;
+    private PubSubCommands.RedisSubscriber subscriber;
+
+    void start(@Observes StartupEvent event) {
+        if (!redisEnabled) return;
+        l2 = redis.value(String.class);
+        sync = redis.pubsub(String.class);
+        subscriber = sync.subscribe(syncChannel, this::onRemoteChange);
+    }
+
+    void stop(@Observes ShutdownEvent event) {
+        if (subscriber != null) subscriber.unsubscribe();
+    }
+
+    public List<BookingResponse> page(BookingFilter filter, long after, int limit,
+                                      Supplier<List<BookingResponse>> loader) {
+        return pageCache.get(new PageKey(filter, after, limit), k -> List.copyOf(loader.get()))
+                .await().indefinitely();
+    }
+
+    public List<BookingResponse> customerBookings(String customerId, Supplier<List<BookingResponse>> loader) {
+        if (customerId == null) return loader.get();
+        return customerCache.get(customerId, k -> List.copyOf(fromL2(customerId, loader)))
+                .await().indefinitely();
+    }
+
+    // Entrada por reserva (GET /bookings/{id}); atualizada com a própria reserva a cada mudança
+    public BookingResponse booking(Long id, Supplier<BookingResponse> loader) {
+        return bookingCache.<Long, BookingResponse>get(id, k -> loader.get()).await().indefinitely();
+    }
+
+    // Variantes do modo reativo; o L2 no Redis fica de fora para não bloquear a thread de I/O
+    public Uni<List<BookingResponse>> pageAsync(BookingFilter filter, long after, int limit,
+                                                Supplier<Uni<List<BookingResponse>>> loader) {
+        return pageCache.getAsync(new PageKey(filter, after, limit), k -> loader.get().map(List::copyOf));
+    }
+
+    public Uni<BookingResponse> bookingAsync(Long id, Supplier<Uni<BookingResponse>> loader) {
+        return bookingCache.getAsync(id, k -> loader.get());
+    }
+
+    public Uni<List<BookingResponse>> customerBookingsAsync(String customerId,
+                                                           Supplier<Uni<List<BookingResponse>>> loader) {
+        if (customerId == null) return loader.get();
+        return customerCache.getAsync(customerId, k -> loader.get().map(List::copyOf));
+    }
+
+    void onBookingChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) BookingChanged change) {
+        BookingResponse b = change.booking();
+        if (change.remote() || b.getId() == null) return;
+
+        apply(b);
+
+        if (!redisEnabled) return;
+        try {
+            if (b.getCustomerId() != null) invalidateL2(b.getCustomerId());
+            sync.publish(syncChannel, objectMapper.writeValueAsString(
+                    new CacheSync(origin, b, change.previousStatus(), null)));
+        } catch (Exception e) {
+            // Sem Redis as outras réplicas só se corrigem pela expiração do L1
+            Log.warnf(e, "Falha ao propagar mudança da reserva %d para o Redis", b.getId());
+        }
+    }
+
+    // Reservas arquivadas saem de todas as entradas, nesta réplica e nas outras
+    void onBookingArchived(@Observes(during = TransactionPhase.AFTER_SUCCESS) BookingArchived archived) {
+        if (archived.bookings().isEmpty()) return;
+
+        evict(archived.bookings());
+
+        if (!redisEnabled) return;
+        try {
+            archived.bookings().stream().map(BookingResponse::getCustomerId).filter(Objects::nonNull).distinct()
+                    .forEach(this::invalidateL2);
+            sync.publish(syncChannel, objectMapper.writeValueAsString(
+                    new CacheSync(origin, null, null, archived.bookings())));
+        } catch (Exception e) {
+            Log.warnf(e, "Falha ao propagar o arquivamento de %d reservas para o Redis", archived.bookings().size());
+        }
+    }
+
+    // A versão vive o dobro da lista para não zerar enquanto alguém ainda carrega
+    private void invalidateL2(String customerId) {
+        redis.execute("EVAL", INVALIDATE_SCRIPT, "2",
+                CUSTOMER_VERSION_PREFIX + customerId, CUSTOMER_KEY_PREFIX + customerId,
+                String.valueOf(l2Ttl.toSeconds() * 2));
+    }
+
+    private void onRemoteChange(String payload) {
+        try {
+            CacheSync message = objectMapper.readValue(payload, CacheSync.class);
+            if (origin.equals(message.origin())) return;
+            if (message.archived() != null) {
+                evict(message.archived());
+                return;
+            }
+            apply(message.booking());
+            // Repassa para os demais estados derivados (índices, disponibilidade); sem transação
+            // ativa os observadores AFTER_SUCCESS são chamados na hora
+            bookingChanged.fire(new BookingChanged(message.booking(), message.previousStatus(), true));
+        } catch (Exception e) {
+            Log.warnf(e, "Mensagem de sincronização de cache inválida: %s", payload);
+        }
+    }
+
+    // Não bloqueia em I/O: também roda na thread de I/O do assinante do pub/sub
+    private void apply(BookingResponse b) {
+        CaffeineCache bookings = bookingCache.as(CaffeineCache.class);
+        patch(bookings, b.getId(), (BookingResponse current) -> b);
+
+        if (b.getCustomerId() != null) {
+            patch(customerCache.as(CaffeineCache.class), b.getCustomerId(), (List<BookingResponse> list) -> upsert(list, b));
+        }
+
+        CaffeineCache pages = pageCache.as(CaffeineCache.class);
+        for (Object key : pages.keySet()) {
+            PageKey pageKey = (PageKey) key;
+            patch(pages, pageKey,
+                    (List<BookingResponse> page) -> patchPage(pageKey, page, b));
+        }
+    }
+
+    private void evict(List<BookingResponse> removed) {
+        Set<Long> ids = new HashSet<>();
+        Map<String, Set<Long>> byCustomer = new HashMap<>();
+        CaffeineCache bookings = bookingCache.as(CaffeineCache.class);
+        for (BookingResponse b : removed) {
+            if (b.getId() == null) continue;
+            ids.add(b.getId());
+            invalidate(bookings, b.getId());
+            if (b.getCustomerId() != null) {
+                byCustomer.computeIfAbsent(b.getCustomerId(), k -> new HashSet<>()).add(b.getId());
+            }
+        }
+
+        CaffeineCache customers = customerCache.as(CaffeineCache.class);
+        byCustomer.forEach((customerId, customerIds) ->
+                patch(customers, customerId, (List<BookingResponse> list) -> without(list, customerIds)));
+
+        // Página que perdeu uma reserva teria que puxar a seguinte: recarrega
+        CaffeineCache pages = pageCache.as(CaffeineCache.class);
+        for (Object key : pages.keySet()) {
+            patch(pages, key, (List<BookingResponse> page) -> without(page, ids) == page ? page : null);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void patch(CaffeineCache cache, Object key, Function<T, T> patcher) {
+        ReentrantLock lock = patchLocks[Math.floorMod(key.hashCode(), PATCH_STRIPES)];
+        lock.lock();
+        try {
+            CompletableFuture<T> current = cache.getIfPresent(key);
+            if (current == null) return;
+
+            // Carga ainda em andamento pode ter lido o estado anterior ao commit
+            if (!current.isDone() || current.isCompletedExceptionally()) {
+                invalidate(cache, key);
+                return;
+            }
+
+            T value = current.join();
+            T patched = value == null ? null : patcher.apply(value);
+            if (patched == null) {
+                invalidate(cache, key);
+            } else if (patched != value) {
+                cache.put(key, CompletableFuture.completedFuture(patched));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void invalidate(CaffeineCache cache, Object key) {
+        cache.invalidate(key).subscribe().with(ignored -> {
+        });
+    }
+
+    private List<BookingResponse> fromL2(String customerId, Supplier<List<BookingResponse>> loader) {
+        if (!redisEnabled) return loader.get();
+
+        String key = CUSTOMER_KEY_PREFIX + customerId;
+        String versionKey = CUSTOMER_VERSION_PREFIX + customerId;
+        String version = null;
+        try {
+            // Versão lida antes do banco: uma mudança no meio do caminho impede a gravação abaixo
+            version = l2.get(versionKey);
+            String cached = l2.get(key);
+            if (cached != null) {
+                List<BookingResponse> hit = objectMapper.readValue(cached, BOOKING_LIST);
+                countL2("hit");
+                return hit;
+            }
+            countL2("miss");
+        } catch (Exception e) {
+            countL2("error");
+            Log.warnf(e, "Falha ao ler %s do Redis, indo ao banco", key);
+        }
+
+        List<BookingResponse> loaded = loader.get();
+        try {
+            redis.execute("EVAL", WRITE_IF_VERSION_SCRIPT, "2", versionKey, key,
+                    version == null ? "0" : version, objectMapper.writeValueAsString(loaded),
+                    String.valueOf(l2Ttl.toSeconds()));
+        } catch (Exception e) {
+            Log.warnf(e, "Falha ao gravar %s no Redis", key);
+        }
+        return loaded;
+    }
+
+    // O L1 (Caffeine) já aparece em cache.gets; este contador cobre o L2 no Redis
+    private void countL2(String result) {
+        meterRegistry.counter("booking.cache.l2", "cache", CUSTOMER_CACHE, "result", result).increment();
+    }
+
+    // Listas ordenadas por id: substitui no lugar ou insere na posição certa
+    private static List<BookingResponse> upsert(List<BookingResponse> list, BookingResponse b) {
+        List<BookingResponse> copy = new ArrayList<>(list);
+        int pos = indexOf(copy, b.getId());
+        if (pos >= 0) {
+            copy.set(pos, b);
+        } else {
+            int at = 0;
+            while (at < copy.size() && copy.get(at).getId() < b.getId()) at++;
+            copy.add(at, b);
+        }
+        return List.copyOf(copy);
+    }
+
+    private static List<BookingResponse> without(List<BookingResponse> list, Set<Long> ids) {
+        if (list.stream().noneMatch(b -> ids.contains(b.getId()))) return list;
+        return list.stream().filter(b -> !ids.contains(b.getId())).toList();
+    }
+
+    // Devolve a página corrigida, a mesma página quando ela não muda,
+    // ou null quando ela precisa ser recarregada do banco.
+    // Ids novos não são necessariamente maiores que os existentes (blocos pooled-lo por réplica,
+    // ids time-ordered de nós diferentes), então criação e mudança seguem a mesma regra.
+    private static List<BookingResponse> patchPage(PageKey key, List<BookingResponse> page, BookingResponse b) {
+        boolean matches = key.filter().matches(b);
+        boolean full = page.size() >= key.limit();
+        int pos = indexOf(page, b.getId());
+
+        if (pos >= 0) {
+            // Se saiu do filtro a página teria que puxar a próxima reserva
+            return matches ? upsert(page, b) : null;
+        }
+        if (!matches || b.getId() <= key.after()) return page;
+
+        // Página incompleta é o fim da listagem: a reserva entra na posição do seu id
+        if (!full) return upsert(page, b);
+
+        // Dentro da faixa de uma página cheia empurraria a última para a próxima página
+        return b.getId() < page.get(page.size() - 1).getId() ? null : page;
+    }
+
+    private static int indexOf(List<BookingResponse> list, Long id) {
+        for (int i = 0; i < list.size(); i++) {
+            if (id.equals(list.get(i).getId())) return i;
+        }
+        return -1;
+    }
+
+    record PageKey(BookingFilter filter, long after, int limit) {
+    }
+
+    // archived preenchido = lote arquivado (booking e previousStatus nulos)
+    public record CacheSync(String origin, BookingResponse booking, BookingStatus previousStatus,
+                            List<BookingResponse> archived) {
+    }
+}
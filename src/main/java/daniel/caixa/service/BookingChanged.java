@@ -0,0 +1,14 @@
+package daniel.caixa.service;
+
+import daniel.caixa.dto.BookingResponse;
+import daniel.caixa.entity.BookingStatus;
+
+// Evento CDI disparado a cada mudança de estado de uma reserva.
+// previousStatus é null quando a reserva acabou de ser criada.
+// remote indica uma mudança feita em outra réplica e recebida pelo pub/sub do BookingCaches.
+public record BookingChanged(BookingResponse booking, BookingStatus previousStatus, boolean remote) {
+
+    public BookingChanged(BookingResponse booking, BookingStatus previousStatus) {
+        this(booking, previousStatus, false);
+    }
+}
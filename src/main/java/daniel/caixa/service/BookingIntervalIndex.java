@@ -0,0 +1,173 @@
+package daniel.caixa.service;
+
+import daniel.caixa.dto.BookingResponse;
+import daniel.caixa.entity.Booking;
+import daniel.caixa.entity.BookingStatus;
+import daniel.caixa.repository.BookingRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Índice em memória, por veículo, dos períodos das reservas que bloqueiam novas reservas.
+// Cada veículo guarda um snapshot imutável de intervalos em epoch-days ordenados pelo início,
+// então a checagem de conflito é uma busca binária sem lock.
+@ApplicationScoped
+public class BookingIntervalIndex {
+
+    @Inject
+    BookingRepository repository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Long, Intervals> byVehicle = new ConcurrentHashMap<>();
+
+    private Timer conflictTimer;
+    private Timer freeTimer;
+
+    @PostConstruct
+    void init() {
+        conflictTimer = checkTimer("conflict");
+        freeTimer = checkTimer("free");
+    }
+
+    private Timer checkTimer(String result) {
+        return Timer.builder("booking.conflict.index")
+                .description("Checagem de conflito de datas no índice em memória")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    void warmUp(@Observes StartupEvent event) {
+        List<Booking> bookings = repository.findByStatusIn(BookingStatus.BLOCKING);
+        for (Booking b : bookings) {
+            put(b.getVehicleId(), b.getId(), b.getStartDate(), b.getEndDate());
+        }
+        Log.infof("Índice de conflitos carregado com %d reservas", bookings.size());
+    }
+
+    public boolean hasConflict(Long vehicleId, LocalDate startDate, LocalDate endDate) {
+        long start = System.nanoTime();
+        Intervals intervals = byVehicle.get(vehicleId);
+        boolean conflict = intervals != null && intervals.overlaps(startDate.toEpochDay(), endDate.toEpochDay());
+        (conflict ? conflictTimer : freeTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return conflict;
+    }
+
+    // Só aplica a mudança depois do commit, para um rollback não deixar o índice sujo
+    void onBookingChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) BookingChanged change) {
+        BookingResponse b = change.booking();
+        if (b.getId() == null || b.getVehicleId() == null) return;
+
+        if (BookingStatus.BLOCKING.contains(b.getStatus())) {
+            put(b.getVehicleId(), b.getId(), b.getStartDate(), b.getEndDate());
+        } else {
+            byVehicle.computeIfPresent(b.getVehicleId(), (k, v) -> v.without(b.getId()));
+        }
+    }
+
+    private void put(Long vehicleId, Long bookingId, LocalDate startDate, LocalDate endDate) {
+        if (vehicleId == null || bookingId == null) return;
+        byVehicle.compute(vehicleId, (k, v) -> (v == null ? Intervals.EMPTY : v)
+                .with(bookingId, startDate.toEpochDay(), endDate.toEpochDay()));
+    }
+
+    private static final class Intervals {
+
+        static final Intervals EMPTY = new Intervals(new long[0], new long[0], new long[0]);
+
+        final long[] ids;
+        final long[] starts;
+        final long[] ends;
+        // maxEnds[i] = maior fim entre os intervalos 0..i
+        final long[] maxEnds;
+
+        Intervals(long[] ids, long[] starts, long[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        // Mesma regra da query antiga: startDate <= fim consultado and endDate >= início consultado
+        boolean overlaps(long start, long end) {
+            int candidates = upperBound(end);
+            return candidates > 0 && maxEnds[candidates - 1] >= start;
+        }
+
+        Intervals with(long id, long start, long end) {
+            Intervals base = without(id);
+            int n = base.ids.length;
+            int pos = base.upperBound(start);
+
+            long[] newIds = new long[n + 1];
+            long[] newStarts = new long[n + 1];
+            long[] newEnds = new long[n + 1];
+            System.arraycopy(base.ids, 0, newIds, 0, pos);
+            System.arraycopy(base.starts, 0, newStarts, 0, pos);
+            System.arraycopy(base.ends, 0, newEnds, 0, pos);
+            newIds[pos] = id;
+            newStarts[pos] = start;
+            newEnds[pos] = end;
+            System.arraycopy(base.ids, pos, newIds, pos + 1, n - pos);
+            System.arraycopy(base.starts, pos, newStarts, pos + 1, n - pos);
+            System.arraycopy(base.ends, pos, newEnds, pos + 1, n - pos);
+            return new Intervals(newIds, newStarts, newEnds);
+        }
+
+        Intervals without(long id) {
+            int pos = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    pos = i;
+                    break;
+                }
+            }
+            if (pos < 0) return this;
+
+            int n = ids.length;
+            long[] newIds = Arrays.copyOf(ids, n - 1);
+            long[] newStarts = Arrays.copyOf(starts, n - 1);
+            long[] newEnds = Arrays.copyOf(ends, n - 1);
+            System.arraycopy(ids, pos + 1, newIds, pos, n - pos - 1);
+            System.arraycopy(starts, pos + 1, newStarts, pos, n - pos - 1);
+            System.arraycopy(ends, pos + 1, newEnds, pos, n - pos - 1);
+            return new Intervals(newIds, newStarts, newEnds);
+        }
+
+        // Quantidade de intervalos com início <= value
+        private int upperBound(long value) {
+            int lo = 0;
+            int hi = starts.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] <= value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package daniel.caixa.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import daniel.caixa.dto.BookingFilter;
+import daniel.caixa.dto.BookingResponse;
+import daniel.caixa.entity.BookingStatus;
+import io.quarkus.logging.Log;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.common.annotation.Identifier;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Modelo de leitura das reservas, projetado a partir do tópico compactado booking-state
+// (BookingKafkaConsumer). Indexado por id, cliente e veículo; serve /listall e /mybookings
+// sem ir ao Postgres. Só responde depois de alcançar o fim do tópico medido no startup;
+// até lá (ou com booking.read-model.enabled=false) as consultas continuam no banco.
+// Reservas arquivadas chegam como tombstone (valor nulo) e saem dos índices.
+@ApplicationScoped
+public class BookingReadModel {
+
+    private static final String REDIS_KEY_PREFIX = "booking:read:";
+
+    @Inject
+    @Identifier("default-kafka-broker")
+    Map<String, Object> kafkaConfig;
+
+    @Inject
+    RedisDataSource redis;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "booking.read-model.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "booking.read-model.redis.enabled", defaultValue = "false")
+    boolean redisEnabled;
+
+    @ConfigProperty(name = "booking.state-topic.name", defaultValue = "booking-state")
+    String topic;
+
+    private final ConcurrentSkipListMap<Long, BookingResponse> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<Long, BookingResponse>> byCustomer = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, ConcurrentSkipListMap<Long, BookingResponse>> byVehicle = new ConcurrentHashMap<>();
+
+    // Último offset aplicado por partição e o fim do tópico no startup
+    private final ConcurrentHashMap<Integer, Long> appliedOffsets = new ConcurrentHashMap<>();
+    private volatile Map<Integer, Long> startupEndOffsets;
+    private volatile boolean ready;
+
+    void loadEndOffsets(@Observes StartupEvent event) {
+        if (!enabled) return;
+        try (AdminClient admin = AdminClient.create(kafkaConfig)) {
+            TopicDescription description = admin.describeTopics(List.of(topic))
+                    .allTopicNames().get(30, TimeUnit.SECONDS).get(topic);
+
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            description.partitions().forEach(p -> latest.put(new TopicPartition(topic, p.partition()), OffsetSpec.latest()));
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> offsets =
+                    admin.listOffsets(latest).all().get(30, TimeUnit.SECONDS);
+
+            Map<Integer, Long> end = new HashMap<>();
+            offsets.forEach((tp, info) -> end.put(tp.partition(), info.offset()));
+            startupEndOffsets = end;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UnknownTopicOrPartitionException) {
+                startupEndOffsets = Map.of();
+            } else {
+                Log.warnf(e.getCause(), "Modelo de leitura desligado: falha ao ler os offsets de %s", topic);
+            }
+        } catch (Exception e) {
+            Log.warnf(e, "Modelo de leitura desligado: falha ao ler os offsets de %s", topic);
+        }
+        updateReady();
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public List<BookingResponse> page(BookingFilter filter, long after, int limit) {
+        NavigableMap<Long, BookingResponse> source = filter.vehicleId() == null
+                ? byId
+                : byVehicle.getOrDefault(filter.vehicleId(), new ConcurrentSkipListMap<>());
+        List<BookingResponse> page = new ArrayList<>(Math.min(limit, 256));
+        for (BookingResponse b : source.tailMap(after, false).values()) {
+            if (!filter.matches(b)) continue;
+            page.add(b);
+            if (page.size() == limit) break;
+        }
+        return page;
+    }
+
+    public List<BookingResponse> forCustomer(String customerId) {
+        ConcurrentSkipListMap<Long, BookingResponse> bookings = byCustomer.get(customerId);
+        return bookings == null ? List.of() : List.copyOf(bookings.values());
+    }
+
+    // Chamado pelo consumidor do booking-state depois de aplicar o lote inteiro.
+    // Tombstones vêm depois das mudanças: uma reserva arquivada não volta a mudar
+    public void applyAll(Collection<BookingResponse> bookings, Collection<Long> removedIds,
+                         Map<Integer, Long> lastOffsets) {
+        bookings.forEach(this::apply);
+        List<BookingResponse> removed = removedIds.stream().map(this::remove).filter(Objects::nonNull).toList();
+        if (redisEnabled) {
+            project(bookings);
+            unproject(removed);
+        }
+        lastOffsets.forEach((partition, offset) -> appliedOffsets.merge(partition, offset, Math::max));
+        updateReady();
+    }
+
+    // As escritas desta réplica aparecem logo, sem esperar a volta pelo Kafka
+    void onBookingChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) BookingChanged change) {
+        if (enabled) apply(change.booking());
+    }
+
+    // Arquivadas nesta réplica saem logo; o tombstone no booking-state avisa as outras
+    void onBookingArchived(@Observes(during = TransactionPhase.AFTER_SUCCESS) BookingArchived archived) {
+        if (!enabled) return;
+        List<BookingResponse> removed = archived.bookings().stream()
+                .map(b -> remove(b.getId())).filter(Objects::nonNull).toList();
+        if (redisEnabled) unproject(removed);
+    }
+
+    private BookingResponse remove(Long id) {
+        if (id == null) return null;
+        BookingResponse removed = byId.remove(id);
+        if (removed == null) return null;
+        if (removed.getCustomerId() != null) {
+            ConcurrentSkipListMap<Long, BookingResponse> bookings = byCustomer.get(removed.getCustomerId());
+            if (bookings != null) bookings.remove(id);
+        }
+        if (removed.getVehicleId() != null) {
+            ConcurrentSkipListMap<Long, BookingResponse> bookings = byVehicle.get(removed.getVehicleId());
+            if (bookings != null) bookings.remove(id);
+        }
+        return removed;
+    }
+
+    // O status só avança (CREATED -> ACTIVE/CANCELED -> FINISHED), então uma versão antiga
+    // que chegue depois da nova é descartada sem depender de relógio
+    private void apply(BookingResponse b) {
+        if (b.getId() == null) return;
+
+        BookingResponse current = byId.get(b.getId());
+        if (current != null && rank(current.getStatus()) > rank(b.getStatus())) return;
+
+        byId.put(b.getId(), b);
+        if (b.getCustomerId() != null) {
+            byCustomer.computeIfAbsent(b.getCustomerId(), k -> new ConcurrentSkipListMap<>()).put(b.getId(), b);
+        }
+        if (b.getVehicleId() != null) {
+            byVehicle.computeIfAbsent(b.getVehicleId(), k -> new ConcurrentSkipListMap<>()).put(b.getId(), b);
+        }
+    }
+
+    // Projeção opcional no Redis para outros serviços: booking:read:<id> e conjuntos por cliente/veículo
+    private void project(Collection<BookingResponse> bookings) {
+        try {
+            for (BookingResponse b : bookings) {
+                if (b.getId() == null) continue;
+                String id = b.getId().toString();
+                redis.value(String.class).set(REDIS_KEY_PREFIX + id, objectMapper.writeValueAsString(b));
+                if (b.getCustomerId() != null) {
+                    redis.set(String.class).sadd(REDIS_KEY_PREFIX + "customer:" + b.getCustomerId(), id);
+                }
+                if (b.getVehicleId() != null) {
+                    redis.set(String.class).sadd(REDIS_KEY_PREFIX + "vehicle:" + b.getVehicleId(), id);
+                }
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            Log.warn("Falha ao projetar reservas no Redis", e);
+        }
+    }
+
+    private void unproject(Collection<BookingResponse> bookings) {
+        try {
+            for (BookingResponse b : bookings) {
+                String id = b.getId().toString();
+                redis.key().del(REDIS_KEY_PREFIX + id);
+                if (b.getCustomerId() != null) {
+                    redis.set(String.class).srem(REDIS_KEY_PREFIX + "customer:" + b.getCustomerId(), id);
+                }
+                if (b.getVehicleId() != null) {
+                    redis.set(String.class).srem(REDIS_KEY_PREFIX + "vehicle:" + b.getVehicleId(), id);
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.warn("Falha ao remover reservas arquivadas da projeção no Redis", e);
+        }
+    }
+
+    private void updateReady() {
+        if (ready || startupEndOffsets == null) return;
+        boolean caughtUp = startupEndOffsets.entrySet().stream()
+                .allMatch(e -> e.getValue() == 0 || appliedOffsets.getOrDefault(e.getKey(), -1L) >= e.getValue() - 1);
+        if (caughtUp) {
+            ready = true;
+            Log.infof("Modelo de leitura pronto com %d reservas", byId.size());
+        }
+    }
+
+    private static int rank(BookingStatus status) {
+        if (status == null) return -1;
+        return switch (status) {
+            case CREATED -> 0;
+            case RENTED, ACTIVE -> 1;
+            case CANCELED, FINISHED -> 2;
+        };
+    }
+}
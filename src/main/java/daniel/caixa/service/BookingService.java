@@ -1,6 +1,9 @@
 package daniel.caixa.service;
 
 import daniel.caixa.client.VehicleAPIClient;
+import daniel.caixa.client.VehicleStatusCache;
+import daniel.caixa.client.VehicleStatusCommands;
+import daniel.caixa.dto.BookingFilter;
 import daniel.caixa.dto.BookingRequest;
 import daniel.caixa.dto.BookingResponse;
 import daniel.caixa.entity.Booking;
@@ -9,19 +12,28 @@ import daniel.caixa.exception.*;
 import daniel.caixa.kafka.BookingKafkaProducer;
 import daniel.caixa.mapper.BookingMapper;
 import daniel.caixa.repository.BookingRepository;
-import io.quarkus.cache.CacheInvalidateAll;
-import io.quarkus.cache.CacheResult;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
-import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class BookingService {
 
+    // SQLState do Postgres para violação de exclusion constraint (booking_no_overlap)
+    static final String EXCLUSION_VIOLATION = "23P01";
+
+    static final String DATE_CONFLICT_MESSAGE = "Já existe uma reserva para este veículo no período informado";
+
     @Inject
     BookingRepository repository;
 
@@ -29,27 +41,118 @@ public class BookingService {
     BookingMapper mapper;
 
     @Inject
-    @RestClient
-    VehicleAPIClient vehicleAPIClient;
+    VehicleStatusCommands vehicleStatusCommands;
+
+    @Inject
+    VehicleStatusCache vehicleStatusCache;
 
     @Inject
     BookingKafkaProducer bookingKafkaProducer;
 
-    @CacheResult(cacheName = "vehicle-list-cache")
-    public List<BookingResponse> listAll() {
-        System.out.println(">>>>>>>>>>>>>>Executando busca no banco<<<<<<<<<<<<<<");
-        return repository.listAll().stream()
-                .map(mapper::toResponse)
-                .collect(Collectors.toList());
+    @Inject
+    BookingIntervalIndex intervalIndex;
+
+    @Inject
+    VehicleLockManager vehicleLocks;
+
+    @Inject
+    BookingCaches caches;
+
+    @Inject
+    BookingReadModel readModel;
+
+    @Inject
+    Event<BookingChanged> bookingChanged;
+
+    @ConfigProperty(name = "booking.conflict-index.enabled", defaultValue = "true")
+    boolean conflictIndexEnabled;
+
+    @Timed(value = "booking.service", histogram = true)
+    public List<BookingResponse> listAll(BookingFilter filter, long after, int limit) {
+        if (readModel.isReady()) return readModel.page(filter, after, limit);
+        // Carga fora do cache: aparece em cache.gets{result=miss} e no booking.service de listAll
+        return caches.page(filter, after, limit, () -> {
+            Log.debugf("Página de reservas após %d lida do banco", after);
+            return repository.findResponsePage(filter, after, limit);
+        });
     }
 
-    @CacheInvalidateAll(cacheName = "vehicle-list-cache")
+    // Entrega as reservas uma a uma enquanto o banco devolve as linhas; a memória não cresce
+    // com o tamanho da tabela porque a projeção não passa pelo contexto de persistência
     @Transactional
+    @Timed(value = "booking.service", histogram = true)
+    public void streamAll(BookingFilter filter, Consumer<BookingResponse> sink) {
+        try (Stream<BookingResponse> bookings = repository.streamAll(filter)) {
+            bookings.forEach(sink);
+        }
+    }
+
+    @Transactional
+    @Timed(value = "booking.service", histogram = true)
     public BookingResponse create(BookingRequest dto, String customerId) {
 
-        VehicleAPIClient.Vehicle vehicle = vehicleAPIClient.findVehicleById(dto.getVehicleId());
+        VehicleAPIClient.Vehicle vehicle = vehicleStatusCache.find(dto.getVehicleId());
+        checkVehicle(vehicle);
+        checkDates(dto);
+
+        // Serializa reservas concorrentes do mesmo veículo quando o lock está ligado
+        boolean locked = vehicleLocks.lockForTransaction(dto.getVehicleId());
+
+        // Regra 4: verificar conflito de datas de reserva
+        // O índice em memória recusa rápido; a constraint booking_no_overlap do banco é a garantia final
+        if (conflictIndexEnabled
+                && intervalIndex.hasConflict(dto.getVehicleId(), dto.getStartDate(), dto.getEndDate())) {
+            throw new InvalidReservationDateException(DATE_CONFLICT_MESSAGE);
+        }
+        // Com o lock, quem veio antes já fez commit: o banco é a fonte da verdade, não o índice
+        // (que pode não ter recebido a reserva de outra réplica ou do AFTER_SUCCESS ainda pendente)
+        if (locked && repository.hasDateConflict(dto.getVehicleId(), BookingStatus.BLOCKING,
+                dto.getStartDate(), dto.getEndDate())) {
+            throw new InvalidReservationDateException(DATE_CONFLICT_MESSAGE);
+        }
+
+        // Mapeamento e persistência
+        Booking entity = mapper.toEntity(dto, customerId);
+        try {
+            repository.persistAndFlush(entity);
+        } catch (PersistenceException e) {
+            if (isOverlapViolation(e)) {
+                throw new InvalidReservationDateException(DATE_CONFLICT_MESSAGE);
+            }
+            throw e;
+        }
+        bookingKafkaProducer.sendReservaCriada(entity);
+
+        BookingResponse response = mapper.toResponse(entity);
+        bookingChanged.fire(new BookingChanged(response, null));
+        return response;
+
+    }
+
+    @Transactional
+    @Timed(value = "booking.service", histogram = true)
+    public void cancelBooking(Long bookingId) {
+        Booking booking = findLocked(bookingId);
+
+        // Regra 1: Só cancelar se Criada
+        if (booking.getStatus() != BookingStatus.CREATED) {
+            throw new InvalidReservationStatusException("Booking already " + booking.getStatus());
+        }
 
-        // Regra 1: verificar se o veículo existe e está disponível
+        //Alterando Status do Veiculo para AVAILABLE: vai para a fila e sai depois do commit
+        vehicleStatusCommands.enqueue(booking.getVehicleId(), VehicleStatusCommands.AVAILABLE);
+
+        //Alterando Status do Booking para novo Status
+        booking.setStatus(BookingStatus.CANCELED);
+        booking.setCanceledAt(LocalDate.now());
+        bookingChanged.fire(new BookingChanged(mapper.toResponse(booking), BookingStatus.CREATED));
+
+        //Mensagem para o KAFKA
+        bookingKafkaProducer.sendReservaCancelada(booking);
+    }
+
+    // Regra 1: verificar se o veículo existe e está disponível
+    static void checkVehicle(VehicleAPIClient.Vehicle vehicle) {
         if (vehicle == null) {
             throw new VehicleNotFoundException("Veículo não encontrado");
         }
@@ -57,7 +160,9 @@ public class BookingService {
         if (!vehicle.status().equals("AVAILABLE")) {
             throw new VehicleUnavailableException("Veículo indisponível para reserva");
         }
+    }
 
+    static void checkDates(BookingRequest dto) {
         // Regra 2: startDate deve ser hoje ou futuro
         if (dto.getStartDate().isBefore(LocalDate.now())) {
             throw new InvalidReservationDateException("A data de início da reserva deve ser hoje ou no futuro");
@@ -67,60 +172,55 @@ public class BookingService {
         if (dto.getEndDate().isBefore(dto.getStartDate())) {
             throw new InvalidReservationDateException("A data de término da reserva deve ser igual ou posterior à data de início");
         }
+    }
 
-        // Regra 4: verificar conflito de datas de reserva
-        boolean hasConflict = repository.count(
-                "vehicleId = ?1 and status in ?2 and startDate <= ?3 and endDate >= ?4",
-                dto.getVehicleId(),
-                List.of(BookingStatus.RENTED, BookingStatus.CREATED),
-                dto.getEndDate(),
-                dto.getStartDate()
-        ) > 0;
-
-        if (hasConflict) {
-            throw new InvalidReservationDateException("Já existe uma reserva para este veículo no período informado");
+    // customerId nulo (admin) dispensa a checagem do dono
+    static void checkOwner(String owner, Long bookingId, String customerId) {
+        if (customerId != null && !customerId.equals(owner)) {
+            throw new InvalidCustomerException("Reservation n# " + bookingId + " not for logged customer!");
         }
-
-        // Mapeamento e persistência
-        Booking entity = mapper.toEntity(dto, customerId);
-        repository.persist(entity);
-        return mapper.toResponse(entity);
-
     }
 
-    @CacheInvalidateAll(cacheName = "vehicle-list-cache")
-    @Transactional
-    public void cancelBooking(Long bookingId) {
+    // Carrega a reserva e trava o veículo dela; com o lock pego, relê a linha para
+    // enxergar o que foi gravado por quem segurava o lock antes
+    private Booking findLocked(Long bookingId) {
         Booking booking = repository.findByIdOptional(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found"));
 
-        // Regra 1: Só cancelar se Criada
-        if (booking.getStatus() != BookingStatus.CREATED) {
-            throw new InvalidReservationStatusException("Booking already " + booking.getStatus());
+        if (vehicleLocks.lockForTransaction(booking.getVehicleId())) {
+            repository.refresh(booking);
         }
+        return booking;
+    }
 
-        //Alterando Status do Veiculo para AVAILABLE
-        VehicleAPIClient.Vehicle vehicle = vehicleAPIClient.findVehicleById(booking.getVehicleId());
-        vehicleAPIClient.updateStatus(booking.getVehicleId(), new VehicleAPIClient.Vehicle("AVAILABLE"));
-
-        //Alterando Status do Booking para novo Status
-        booking.setStatus(BookingStatus.CANCELED);
-        booking.setCanceledAt(LocalDate.now());
+    static boolean isOverlapViolation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && EXCLUSION_VIOLATION.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        //Mensagem para o KAFKA
-        bookingKafkaProducer.sendReservaCancelada(booking);
+    @Timed(value = "booking.service", histogram = true)
+    public List<BookingResponse> listAllForCustomer(String customerId) {
+        if (customerId != null && readModel.isReady()) return readModel.forCustomer(customerId);
+        return caches.customerBookings(customerId, () -> repository.findResponsesByCustomerId(customerId));
     }
 
-    public List<Booking> listAllForCustomer(String customerId) {
-        return repository.findByCustomerId(customerId);
+    @Timed(value = "booking.service", histogram = true)
+    public BookingResponse findById(Long bookingId, String customerId) {
+        BookingResponse booking = caches.booking(bookingId, () -> repository.findResponseById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException("Booking not found")));
+        checkOwner(booking.getCustomerId(), bookingId, customerId);
+        return booking;
     }
 
     //Realiza o check-in
-    @CacheInvalidateAll(cacheName = "vehicle-list-cache")
     @Transactional
+    @Timed(value = "booking.service", histogram = true)
     public void vehicleCheckIn(Long bookingId, String customerId) {
-        Booking booking = repository.findByIdOptional(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException("Booking not found"));
+        Booking booking = findLocked(bookingId);
 
         BookingStatus currentStatus = booking.getStatus();
 
@@ -138,17 +238,17 @@ public class BookingService {
         //Alterando status para ACTIVE
         booking.setStatus(BookingStatus.ACTIVE);
         booking.setActivatedAt(LocalDate.now());
+        bookingChanged.fire(new BookingChanged(mapper.toResponse(booking), currentStatus));
 
         //Mensagem para o KAFKA
         bookingKafkaProducer.sendReservaAtiva(booking);
     }
 
     //Realiza o check-out
-    @CacheInvalidateAll(cacheName = "vehicle-list-cache")
     @Transactional
+    @Timed(value = "booking.service", histogram = true)
     public void vehicleCheckOut(Long bookingId, String customerId) {
-        Booking booking = repository.findByIdOptional(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException("Booking not found"));
+        Booking booking = findLocked(bookingId);
 
         BookingStatus currentStatus = booking.getStatus();
 
@@ -166,6 +266,7 @@ public class BookingService {
         //Alterando status para FINISHED
         booking.setStatus(BookingStatus.FINISHED);
         booking.setFinishedAt(LocalDate.now());
+        bookingChanged.fire(new BookingChanged(mapper.toResponse(booking), currentStatus));
 
         //Mensagem para o KAFKA
         bookingKafkaProducer.sendReservaConcluida(booking);
@@ -0,0 +1,77 @@
+package daniel.caixa.service;
+
+import daniel.caixa.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Limita quantas requisições usam o banco ao mesmo tempo. Com virtual threads não há mais
+// o teto do worker pool, e milhares de requisições iriam disputar as conexões do pool JDBC.
+// Quem passa do limite espera aqui (sem prender thread de plataforma) e desiste com 503.
+@ApplicationScoped
+public class DatabaseConcurrencyLimiter {
+
+    @ConfigProperty(name = "booking.db-concurrency.max", defaultValue = "8")
+    int maxConcurrent;
+
+    @ConfigProperty(name = "booking.db-concurrency.acquire-timeout", defaultValue = "2s")
+    Duration acquireTimeout;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private Semaphore permits;
+
+    private Timer waitTimer;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxConcurrent, true);
+        waitTimer = Timer.builder("booking.db.concurrency.wait")
+                .description("Espera por uma vaga de acesso ao banco")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("booking.db.concurrency.in-use", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Requisições usando o banco agora")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> action) {
+        acquire();
+        try {
+            return action.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private void acquire() {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ServiceOverloadedException("Serviço sobrecarregado, tente novamente");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Requisição interrompida aguardando o banco");
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package daniel.caixa.service;
+
+import daniel.caixa.client.VehicleStatusCache;
+import daniel.caixa.client.VehicleStatusCommands;
+import daniel.caixa.dto.BookingFilter;
+import daniel.caixa.dto.BookingRequest;
+import daniel.caixa.dto.BookingResponse;
+import daniel.caixa.entity.Booking;
+import daniel.caixa.entity.BookingStatus;
+import daniel.caixa.exception.BookingNotFoundException;
+import daniel.caixa.exception.InvalidCustomerException;
+import daniel.caixa.exception.InvalidReservationDateException;
+import daniel.caixa.exception.InvalidReservationStatusException;
+import daniel.caixa.kafka.BookingKafkaProducer;
+import daniel.caixa.mapper.BookingMapper;
+import daniel.caixa.repository.ReactiveBookingRepository;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.pgclient.PgException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Mesmas regras do BookingService em cima do Hibernate Reactive, do client reativo e do
+// MutinyEmitter. Nenhuma etapa prende uma thread esperando banco ou vehicles-ms.
+// O VehicleLockManager depende de JTA e não é usado aqui; a constraint booking_no_overlap cobre os conflitos.
+@ApplicationScoped
+public class ReactiveBookingService {
+
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    @Inject
+    ReactiveBookingRepository repository;
+
+    @Inject
+    BookingMapper mapper;
+
+    @Inject
+    VehicleStatusCommands vehicleStatusCommands;
+
+    @Inject
+    VehicleStatusCache vehicleStatusCache;
+
+    @Inject
+    BookingKafkaProducer bookingKafkaProducer;
+
+    @Inject
+    BookingIntervalIndex intervalIndex;
+
+    @Inject
+    BookingCaches caches;
+
+    @Inject
+    BookingReadModel readModel;
+
+    @Inject
+    Event<BookingChanged> bookingChanged;
+
+    @ConfigProperty(name = "booking.conflict-index.enabled", defaultValue = "true")
+    boolean conflictIndexEnabled;
+
+    public Uni<List<BookingResponse>> listAll(BookingFilter filter, long after, int limit) {
+        if (readModel.isReady()) return Uni.createFrom().item(readModel.page(filter, after, limit));
+        return caches.pageAsync(filter, after, limit, () -> Panache.withSession(
+                () -> repository.findResponsePage(filter, after, limit)));
+    }
+
+    // Sem cursor no Hibernate Reactive: percorre a tabela em páginas por id, uma de cada vez
+    public Multi<BookingResponse> streamAll(BookingFilter filter) {
+        AtomicLong cursor = new AtomicLong();
+        return Multi.createBy().repeating()
+                .uni(() -> Panache.withSession(() -> repository.findResponsePage(filter, cursor.get(), STREAM_PAGE_SIZE))
+                        .invoke(page -> {
+                            if (!page.isEmpty()) cursor.set(page.get(page.size() - 1).getId());
+                        }))
+                .whilst(page -> page.size() == STREAM_PAGE_SIZE)
+                .onItem().<BookingResponse>disjoint();
+    }
+
+    public Uni<List<BookingResponse>> listAllForCustomer(String customerId) {
+        if (customerId != null && readModel.isReady()) return Uni.createFrom().item(readModel.forCustomer(customerId));
+        return caches.customerBookingsAsync(customerId, () -> Panache.withSession(
+                () -> repository.findResponsesByCustomerId(customerId)));
+    }
+
+    public Uni<BookingResponse> findById(Long bookingId, String customerId) {
+        return caches.bookingAsync(bookingId, () -> Panache.withSession(() -> repository.findResponseById(bookingId))
+                        .onItem().ifNull().failWith(() -> new BookingNotFoundException("Booking not found")))
+                .invoke(booking -> BookingService.checkOwner(booking.getCustomerId(), bookingId, customerId));
+    }
+
+    public Uni<BookingResponse> create(BookingRequest dto, String customerId) {
+        return vehicleStatusCache.findAsync(dto.getVehicleId())
+                .invoke(vehicle -> {
+                    BookingService.checkVehicle(vehicle);
+                    BookingService.checkDates(dto);
+
+                    if (conflictIndexEnabled
+                            && intervalIndex.hasConflict(dto.getVehicleId(), dto.getStartDate(), dto.getEndDate())) {
+                        throw new InvalidReservationDateException(BookingService.DATE_CONFLICT_MESSAGE);
+                    }
+                })
+                .chain(vehicle -> Panache.withTransaction(() -> {
+                    Booking entity = mapper.toEntity(dto, customerId);
+                    return repository.persistAndFlush(entity)
+                            .call(bookingKafkaProducer::sendReservaCriadaAsync)
+                            .map(mapper::toResponse);
+                }))
+                .onFailure(ReactiveBookingService::isOverlapViolation)
+                .transform(e -> new InvalidReservationDateException(BookingService.DATE_CONFLICT_MESSAGE))
+                .call(response -> published(new BookingChanged(response, null)));
+    }
+
+    public Uni<Void> cancelBooking(Long bookingId) {
+        return transition(bookingId, BookingStatus.CANCELED, null, booking -> {
+            booking.setStatus(BookingStatus.CANCELED);
+            booking.setCanceledAt(LocalDate.now());
+        }, booking -> vehicleStatusCommands
+                .enqueueAsync(booking.getVehicleId(), VehicleStatusCommands.AVAILABLE)
+                .chain(() -> bookingKafkaProducer.sendReservaCanceladaAsync(booking)));
+    }
+
+    public Uni<Void> vehicleCheckIn(Long bookingId, String customerId) {
+        return transition(bookingId, BookingStatus.ACTIVE, customerId, booking -> {
+            booking.setStatus(BookingStatus.ACTIVE);
+            booking.setActivatedAt(LocalDate.now());
+        }, bookingKafkaProducer::sendReservaAtivaAsync);
+    }
+
+    public Uni<Void> vehicleCheckOut(Long bookingId, String customerId) {
+        return transition(bookingId, BookingStatus.FINISHED, customerId, booking -> {
+            booking.setStatus(BookingStatus.FINISHED);
+            booking.setFinishedAt(LocalDate.now());
+        }, bookingKafkaProducer::sendReservaConcluidaAsync);
+    }
+
+    // Carrega a reserva, valida o status de origem e o dono, aplica a mudança e roda o efeito
+    // colateral (vehicles-ms / Kafka) dentro da mesma transação, como no modo bloqueante
+    private Uni<Void> transition(Long bookingId, BookingStatus target, String customerId,
+                                 Consumer<Booking> change,
+                                 Function<Booking, Uni<Void>> sideEffect) {
+        // Cancelamento e check-in partem de CREATED; check-out parte de ACTIVE
+        BookingStatus required = target == BookingStatus.FINISHED ? BookingStatus.ACTIVE : BookingStatus.CREATED;
+
+        return Panache.withTransaction(() -> repository.findById(bookingId)
+                        .onItem().ifNull().failWith(() -> new BookingNotFoundException("Booking not found"))
+                        .invoke(booking -> {
+                            if (booking.getStatus() != required) {
+                                throw new InvalidReservationStatusException(target == BookingStatus.CANCELED
+                                        ? "Booking already " + booking.getStatus()
+                                        : "Booking " + booking.getStatus() + " not available to "
+                                        + (target == BookingStatus.ACTIVE ? "check-in" : "check-out"));
+                            }
+                            if (customerId != null && !booking.getCustomerId().equals(customerId)) {
+                                throw new InvalidCustomerException("Reservation n# " + bookingId + " not for logged customer!");
+                            }
+                        })
+                        .invoke(change)
+                        .call(sideEffect)
+                        .map(mapper::toResponse))
+                .chain(response -> published(new BookingChanged(response, required)));
+    }
+
+    // Os observadores do BookingChanged (índice, caches) podem bloquear; saem da thread de I/O
+    private Uni<Void> published(BookingChanged change) {
+        return Uni.createFrom().voidItem()
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+                .invoke(() -> bookingChanged.fire(change));
+    }
+
+    private static boolean isOverlapViolation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof PgException pg && BookingService.EXCLUSION_VIOLATION.equals(pg.getSqlState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,176 @@
+package daniel.caixa.service;
+
+import daniel.caixa.dto.BookingResponse;
+import daniel.caixa.dto.DateRange;
+import daniel.caixa.dto.VehicleAvailability;
+import daniel.caixa.entity.Booking;
+import daniel.caixa.entity.BookingStatus;
+import daniel.caixa.repository.BookingRepository;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Calendário de ocupação por veículo: um bit por dia (epoch-day) em long[], montado a partir das
+// reservas que ocupam o veículo. Cada veículo guarda um snapshot imutável, então as consultas
+// de disponibilidade não travam e custam poucas operações por palavra de 64 dias.
+@ApplicationScoped
+public class VehicleAvailabilityIndex {
+
+    @Inject
+    BookingRepository repository;
+
+    private final ConcurrentHashMap<Long, Calendar> byVehicle = new ConcurrentHashMap<>();
+
+    @Transactional
+    void warmUp(@Observes StartupEvent event) {
+        List<Booking> bookings = repository.findByStatusIn(BookingStatus.BLOCKING);
+        Map<Long, Map<Long, long[]>> periods = new HashMap<>();
+        for (Booking b : bookings) {
+            if (b.getVehicleId() == null || b.getId() == null) continue;
+            periods.computeIfAbsent(b.getVehicleId(), k -> new HashMap<>())
+                    .put(b.getId(), new long[]{b.getStartDate().toEpochDay(), b.getEndDate().toEpochDay()});
+        }
+        periods.forEach((vehicleId, p) -> byVehicle.put(vehicleId, new Calendar(p)));
+        Log.infof("Calendário de disponibilidade carregado com %d reservas", bookings.size());
+    }
+
+    public VehicleAvailability availability(Long vehicleId, LocalDate from, LocalDate to) {
+        Calendar calendar = byVehicle.getOrDefault(vehicleId, Calendar.EMPTY);
+        long start = from.toEpochDay();
+        long end = to.toEpochDay();
+        return new VehicleAvailability(vehicleId, calendar.isFree(start, end), calendar.freeRanges(start, end));
+    }
+
+    public boolean isFree(Long vehicleId, LocalDate from, LocalDate to) {
+        return byVehicle.getOrDefault(vehicleId, Calendar.EMPTY).isFree(from.toEpochDay(), to.toEpochDay());
+    }
+
+    // Depois do commit (ou na hora, para mudanças vindas de outra réplica)
+    void onBookingChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) BookingChanged change) {
+        BookingResponse b = change.booking();
+        if (b.getId() == null || b.getVehicleId() == null) return;
+
+        if (BookingStatus.BLOCKING.contains(b.getStatus())) {
+            long[] period = {b.getStartDate().toEpochDay(), b.getEndDate().toEpochDay()};
+            byVehicle.compute(b.getVehicleId(), (k, v) -> (v == null ? Calendar.EMPTY : v).with(b.getId(), period));
+        } else {
+            byVehicle.computeIfPresent(b.getVehicleId(), (k, v) -> v.without(b.getId()));
+        }
+    }
+
+    static final class Calendar {
+
+        static final Calendar EMPTY = new Calendar(Map.of());
+
+        // Reserva -> {início, fim} em epoch-days, para remover uma reserva sem perder as outras
+        final Map<Long, long[]> periods;
+        // Bit i de words = dia (firstDay + i) ocupado
+        final long firstDay;
+        final long[] words;
+
+        Calendar(Map<Long, long[]> periods) {
+            this.periods = Map.copyOf(periods);
+
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (long[] p : this.periods.values()) {
+                min = Math.min(min, p[0]);
+                max = Math.max(max, p[1]);
+            }
+            if (this.periods.isEmpty()) {
+                firstDay = 0;
+                words = new long[0];
+                return;
+            }
+
+            firstDay = Math.floorDiv(min, 64) * 64;
+            words = new long[(int) ((max - firstDay) / 64) + 1];
+            for (long[] p : this.periods.values()) {
+                setRange(p[0] - firstDay, p[1] - firstDay);
+            }
+        }
+
+        Calendar with(long bookingId, long[] period) {
+            Map<Long, long[]> copy = new HashMap<>(periods);
+            copy.put(bookingId, period);
+            return new Calendar(copy);
+        }
+
+        Calendar without(long bookingId) {
+            if (!periods.containsKey(bookingId)) return this;
+            Map<Long, long[]> copy = new HashMap<>(periods);
+            copy.remove(bookingId);
+            return new Calendar(copy);
+        }
+
+        boolean isFree(long from, long to) {
+            return next(from, to, true) < 0;
+        }
+
+        List<DateRange> freeRanges(long from, long to) {
+            List<DateRange> ranges = new ArrayList<>();
+            long day = from;
+            while (day <= to) {
+                long free = next(day, to, false);
+                if (free < 0) break;
+                long busy = next(free, to, true);
+                long last = busy < 0 ? to : busy - 1;
+                ranges.add(new DateRange(LocalDate.ofEpochDay(free), LocalDate.ofEpochDay(last)));
+                if (busy < 0) break;
+                day = busy;
+            }
+            return ranges;
+        }
+
+        // Primeiro dia em [from, to] ocupado (busy=true) ou livre (busy=false); -1 se não houver
+        private long next(long from, long to, boolean busy) {
+            long day = from;
+            while (day <= to) {
+                long bit = day - firstDay;
+                if (bit < 0) {
+                    // Antes do primeiro dia do bitmap tudo está livre
+                    if (!busy) return day;
+                    day = firstDay;
+                    continue;
+                }
+                int w = (int) (bit >>> 6);
+                if (w >= words.length) return busy ? -1 : day;
+
+                long word = (busy ? words[w] : ~words[w]) & (-1L << (bit & 63));
+                if (word != 0) {
+                    long found = firstDay + ((long) w << 6) + Long.numberOfTrailingZeros(word);
+                    return found <= to ? found : -1;
+                }
+                day = firstDay + ((long) (w + 1) << 6);
+            }
+            return -1;
+        }
+
+        private void setRange(long fromBit, long toBit) {
+            int fromWord = (int) (fromBit >>> 6);
+            int toWord = (int) (toBit >>> 6);
+            long fromMask = -1L << (fromBit & 63);
+            long toMask = -1L >>> (63 - (toBit & 63));
+            if (fromWord == toWord) {
+                words[fromWord] |= fromMask & toMask;
+                return;
+            }
+            words[fromWord] |= fromMask;
+            for (int i = fromWord + 1; i < toWord; i++) {
+                words[i] = -1L;
+            }
+            words[toWord] |= toMask;
+        }
+    }
+}
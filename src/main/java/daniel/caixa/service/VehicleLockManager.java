@@ -0,0 +1,138 @@
+package daniel.caixa.service;
+
+import daniel.caixa.exception.VehicleUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Serializa as operações de um mesmo veículo sem travar veículos diferentes.
+// O lock é pego dentro da transação e só é liberado depois do commit/rollback, então
+// quem vem depois já enxerga o que foi gravado.
+@ApplicationScoped
+public class VehicleLockManager {
+
+    private static final String HELD_STRIPES = VehicleLockManager.class.getName() + ".held";
+
+    @ConfigProperty(name = "booking.vehicle-lock.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "booking.vehicle-lock.stripes", defaultValue = "64")
+    int stripeCount;
+
+    @ConfigProperty(name = "booking.vehicle-lock.timeout", defaultValue = "5s")
+    Duration timeout;
+
+    @ConfigProperty(name = "booking.vehicle-lock.advisory", defaultValue = "false")
+    boolean advisory;
+
+    @Inject
+    TransactionSynchronizationRegistry txRegistry;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    // Semaphore e não ReentrantLock: o afterCompletion pode rodar fora da thread que travou
+    private Semaphore[] stripes;
+
+    private Timer waitTimer;
+    private Counter contended;
+    private Counter timeouts;
+
+    @PostConstruct
+    void init() {
+        stripes = new Semaphore[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Semaphore(1);
+        }
+        waitTimer = Timer.builder("booking.vehicle.lock.wait")
+                .description("Tempo de espera pelo lock do veículo")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        contended = Counter.builder("booking.vehicle.lock.contended")
+                .description("Aquisições que encontraram o lock ocupado")
+                .register(meterRegistry);
+        timeouts = Counter.builder("booking.vehicle.lock.timeouts")
+                .description("Aquisições que desistiram por timeout")
+                .register(meterRegistry);
+    }
+
+    // Trava o veículo até o fim da transação corrente. Retorna false quando o lock está desligado.
+    public boolean lockForTransaction(Long vehicleId) {
+        if (!enabled || vehicleId == null) return false;
+
+        acquireStripe(Math.floorMod(Long.hashCode(vehicleId), stripeCount));
+
+        // Garante a exclusão entre réplicas; é liberado pelo próprio Postgres no fim da transação
+        if (advisory) {
+            long start = System.nanoTime();
+            entityManager.createNativeQuery("select 1 from (select pg_advisory_xact_lock(?1)) l")
+                    .setParameter(1, vehicleId)
+                    .getSingleResult();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return true;
+    }
+
+    private void acquireStripe(int index) {
+        Set<Integer> held = heldStripes();
+        if (held.contains(index)) return;
+
+        Semaphore stripe = stripes[index];
+        if (!stripe.tryAcquire()) {
+            contended.increment();
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = stripe.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new VehicleUnavailableException("Operação interrompida aguardando o veículo");
+            } finally {
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (!acquired) {
+                timeouts.increment();
+                throw new VehicleUnavailableException("Veículo com outra operação em andamento, tente novamente");
+            }
+        }
+        held.add(index);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Integer> heldStripes() {
+        Set<Integer> held = (Set<Integer>) txRegistry.getResource(HELD_STRIPES);
+        if (held != null) return held;
+
+        Set<Integer> created = new HashSet<>();
+        txRegistry.putResource(HELD_STRIPES, created);
+        txRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                for (Integer index : created) {
+                    stripes[index].release();
+                }
+            }
+        });
+        return created;
+    }
+}
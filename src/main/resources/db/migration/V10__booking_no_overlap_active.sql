@@ -0,0 +1,12 @@
+-- Reserva com check-in feito (ACTIVE) também ocupa o veículo: a constraint passa a valer para
+-- os mesmos status de BookingStatus.BLOCKING. Falha se já houver reserva CREATED/RENTED
+-- sobreposta a uma ACTIVE do mesmo veículo; para encontrá-las:
+--   select a.id, b.id from booking a join booking b on a.vehicleId = b.vehicleId and a.id < b.id
+--   and a.period && b.period where a.status in ('CREATED', 'RENTED', 'ACTIVE')
+--   and b.status in ('CREATED', 'RENTED', 'ACTIVE') and 'ACTIVE' in (a.status, b.status);
+alter table booking drop constraint if exists booking_no_overlap;
+
+alter table booking
+    add constraint booking_no_overlap
+        exclude using gist (vehicleId with =, period with &&)
+        where (status in ('CREATED', 'RENTED', 'ACTIVE'));
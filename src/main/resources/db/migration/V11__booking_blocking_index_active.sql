@@ -0,0 +1,8 @@
+-- O índice parcial dos conflitos acompanha BookingStatus.BLOCKING (agora com ACTIVE); com o
+-- predicado antigo o planner não o usaria para as consultas com os três status.
+-- Fora de transação por causa do concurrently (ver .sql.conf).
+create index concurrently if not exists booking_vehicle_period_occupied_idx
+    on booking (vehicleId, startDate, endDate)
+    where status in ('CREATED', 'RENTED', 'ACTIVE');
+
+drop index concurrently if exists booking_vehicle_period_blocking_idx;
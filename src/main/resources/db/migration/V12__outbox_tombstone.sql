@@ -0,0 +1,2 @@
+-- Tombstones do booking-state (reservas arquivadas) não têm payload
+alter table outbox_event alter column payload drop not null;
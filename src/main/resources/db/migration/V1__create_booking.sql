@@ -0,0 +1,13 @@
+-- Esquema que o Hibernate gerava com database.generation=update.
+-- Bancos já existentes entram com baseline na versão 1.
+create table if not exists booking (
+    id          bigint generated by default as identity primary key,
+    vehicleId   bigint,
+    customerId  varchar(255),
+    startDate   date,
+    endDate     date,
+    status      varchar(255) check (status in ('CREATED', 'RENTED', 'ACTIVE', 'CANCELED', 'FINISHED')),
+    activatedAt date,
+    finishedAt  date,
+    canceledAt  date
+);
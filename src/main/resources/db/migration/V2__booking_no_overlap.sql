@@ -0,0 +1,12 @@
+-- Impede, no próprio banco, duas reservas ativas do mesmo veículo com períodos sobrepostos.
+-- O período é fechado nas duas pontas, igual à regra startDate <= fim and endDate >= início.
+create extension if not exists btree_gist;
+
+alter table booking
+    add column period daterange
+        generated always as (daterange(startDate, endDate, '[]')) stored;
+
+alter table booking
+    add constraint booking_no_overlap
+        exclude using gist (vehicleId with =, period with &&)
+        where (status in ('CREATED', 'RENTED'));
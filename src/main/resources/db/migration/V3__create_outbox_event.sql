@@ -0,0 +1,8 @@
+-- Eventos gravados na mesma transação da reserva e enviados depois ao Kafka pelo OutboxRelay
+create table outbox_event (
+    id         bigint generated by default as identity primary key,
+    channel    varchar(100) not null,
+    messageKey varchar(100),
+    payload    text not null,
+    createdAt  timestamp(6) with time zone not null
+);
@@ -0,0 +1,2 @@
+-- O payload do outbox passa a ser binário (JSON em UTF-8 ou Avro, conforme booking.events.format)
+alter table outbox_event alter column payload type bytea using convert_to(payload, 'UTF8');
@@ -0,0 +1,7 @@
+-- Booking.id passa a vir de uma sequence com incremento 50 (pooled-lo no Hibernate),
+-- o que permite batch de inserts. Começa em 1000 para não colidir com os ids fixos do test.sql.
+create sequence if not exists booking_seq start with 1000 increment by 50;
+select setval('booking_seq', greatest((select coalesce(max(id), 0) + 1 from booking), 1000), false);
+
+-- Sem identity: um nextval fora do Hibernate cairia dentro de um bloco já reservado
+alter table booking alter column id drop identity if exists;
@@ -0,0 +1,20 @@
+-- Índices das consultas do BookingRepository. Criados com concurrently para não travar
+-- escritas numa tabela grande (por isso a migration roda fora de transação, ver .sql.conf).
+
+-- Conflitos de período (hasDateConflict, findOverlapping, findActiveByVehicleId) e a carga
+-- dos índices em memória: só as reservas que bloqueiam o veículo entram no índice
+create index concurrently if not exists booking_vehicle_period_blocking_idx
+    on booking (vehicleId, startDate, endDate)
+    where status in ('CREATED', 'RENTED');
+
+-- /bookings/mybookings: cobre todas as colunas da resposta, permitindo index-only scan
+create index concurrently if not exists booking_customer_idx
+    on booking (customerId, id)
+    include (vehicleId, startDate, endDate, status);
+
+-- /bookings/listall paginado por id com filtro de veículo ou de status
+create index concurrently if not exists booking_vehicle_id_idx
+    on booking (vehicleId, id);
+
+create index concurrently if not exists booking_status_id_idx
+    on booking (status, id);
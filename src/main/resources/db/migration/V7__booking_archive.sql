@@ -0,0 +1,20 @@
+-- Tabela fria das reservas encerradas, particionada por mês de startDate.
+-- A booking (quente) não é particionada: a exclusion constraint booking_no_overlap não pode
+-- existir numa tabela particionada por startDate. O job BookingArchiveService move para cá
+-- as reservas FINISHED/CANCELED mais antigas que a retenção e cria as partições mensais sob demanda.
+create table if not exists booking_archive (
+    id          bigint       not null,
+    vehicleId   bigint,
+    customerId  varchar(255),
+    startDate   date         not null,
+    endDate     date,
+    status      varchar(255) not null,
+    activatedAt date,
+    finishedAt  date,
+    canceledAt  date,
+    archivedAt  timestamptz  not null default now(),
+    primary key (id, startDate)
+) partition by range (startDate);
+
+create index if not exists booking_archive_customer_idx on booking_archive (customerId, startDate);
+create index if not exists booking_archive_vehicle_idx on booking_archive (vehicleId, startDate);
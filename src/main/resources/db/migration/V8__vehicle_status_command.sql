@@ -0,0 +1,15 @@
+-- Atualizações de status pendentes no vehicles-ms, gravadas na mesma transação da reserva
+-- e enviadas depois pelo VehicleStatusDispatcher, com retentativa e backoff exponencial.
+-- idempotencyKey vai no header Idempotency-Key em todas as tentativas do mesmo comando.
+create table vehicle_status_command (
+    id             bigint generated by default as identity primary key,
+    vehicleId      bigint       not null,
+    status         varchar(50)  not null,
+    idempotencyKey uuid         not null unique,
+    attempts       integer      not null default 0,
+    nextAttemptAt  timestamp(6) with time zone not null,
+    lastError      varchar(512),
+    createdAt      timestamp(6) with time zone not null
+);
+
+create index vehicle_status_command_due_idx on vehicle_status_command (nextAttemptAt);
@@ -0,0 +1,7 @@
+-- Até o BookingIdSource os ids vinham do @SequenceGenerator com o otimizador pooled padrão
+-- do Hibernate (não pooled-lo, como diz o V5): o primeiro bloco após o setval do V5 começava
+-- 49 ids abaixo do valor da sequence e podia repetir ids existentes.
+-- Garante que o próximo bloco pooled-lo comece acima de todo id já gravado, inclusive os arquivados.
+select setval('booking_seq', m.max_id + 1, false)
+from (select greatest((select max(id) from booking), (select max(id) from booking_archive)) as max_id) m
+where m.max_id >= (select last_value from booking_seq);
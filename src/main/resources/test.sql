@@ -1,3 +0,0 @@
-insert into booking(id, vehicleId, customerId, startDate, endDate, status) values(1, 1, 'ShouldCancelBookingWithStatusCreated', '2025-11-10', '2025-11-17', 'CREATED');
-insert into booking(id, vehicleId, customerId, startDate, endDate, status) values(2, 2, 'ShouldNotCancelBookingThatIsNotCreated', '2025-11-10', '2025-11-17', 'CANCELED');
-insert into booking(id, vehicleId, customerId, startDate, endDate, status) values(3, 3, 'ShouldFinishBookingThatIsCreated', '2025-11-10', '2025-11-17', 'CREATED');
\ No newline at end of file
@@ -1,25 +1,33 @@
 package daniel.caixa.BookingTests;
 
 import daniel.caixa.client.VehicleAPIClient;
+import daniel.caixa.client.VehicleStatusCache;
 import daniel.caixa.dto.AlterBookingStatusRequest;
 import daniel.caixa.dto.BookingRequest;
 import daniel.caixa.entity.Booking;
 import daniel.caixa.entity.BookingStatus;
+import daniel.caixa.exception.VehicleNotFoundException;
+import daniel.caixa.exception.VehicleServiceUnavailableException;
 import daniel.caixa.repository.BookingRepository;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.security.TestSecurity;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
 import org.eclipse.microprofile.jwt.JsonWebToken;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.equalTo;
+
 @QuarkusTest
 public class BookingIntegrationTests {
 
@@ -33,6 +41,9 @@ public class BookingIntegrationTests {
     @InjectMock
     JsonWebToken jwt;
 
+    @Inject
+    VehicleStatusCache vehicleStatusCache;
+
     //Criar reserva com dados válidos
     @Test
     @TestSecurity(user = "myuser", roles = "user")
@@ -52,6 +63,121 @@ public class BookingIntegrationTests {
                 .statusCode(201);
     }
 
+    //Criar reservas em lote com falha parcial
+    @Test
+    @TestSecurity(user = "myuser", roles = "user")
+    void shouldCreateBookingsInBatchWithPartialFailure() {
+        Mockito.when(vehicleAPIClient.findVehicleById(10L))
+                .thenReturn(new VehicleAPIClient.Vehicle("AVAILABLE"));
+
+        List<BookingRequest> requests = List.of(
+                new BookingRequest(10L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)),
+                new BookingRequest(10L, LocalDate.now().plusDays(2), LocalDate.now().plusDays(4)),
+                new BookingRequest(10L, LocalDate.now().minusDays(1), LocalDate.now().plusDays(2)));
+
+        RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body(requests)
+                .post("/bookings/batch")
+                .then()
+                .statusCode(200)
+                .body("[0].status", equalTo(201))
+                .body("[1].status", equalTo(400))
+                .body("[2].status", equalTo(400));
+    }
+
+    //vehicles-ms fora do ar e sem status conhecido do veículo
+    @Test
+    @TestSecurity(user = "myuser", roles = "user")
+    void shouldReturn503WhenVehicleServiceIsUnavailable() {
+        Mockito.when(vehicleAPIClient.findVehicleById(20L))
+                .thenThrow(new VehicleServiceUnavailableException("vehicles-ms respondeu 503"));
+
+        BookingRequest bookingRequest = new BookingRequest(20L,
+                LocalDate.now().plusDays(1),
+                LocalDate.now().plusDays(2));
+
+        RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body(bookingRequest)
+                .post("/bookings")
+                .then()
+                .statusCode(503)
+                .body("code", equalTo("VEHICLE SERVICE UNAVAILABLE"));
+    }
+
+    //Lote com veículo inexistente e vehicles-ms falhando para outro: só esses pedidos falham
+    @Test
+    @TestSecurity(user = "myuser", roles = "user")
+    void shouldReportVehicleErrorsPerItemInBatch() {
+        Mockito.when(vehicleAPIClient.findVehicleById(30L))
+                .thenReturn(new VehicleAPIClient.Vehicle("AVAILABLE"));
+        Mockito.when(vehicleAPIClient.findVehicleById(31L))
+                .thenThrow(new VehicleNotFoundException("Veículo não encontrado"));
+        Mockito.when(vehicleAPIClient.findVehicleById(32L))
+                .thenThrow(new VehicleServiceUnavailableException("vehicles-ms respondeu 503"));
+
+        List<BookingRequest> requests = List.of(
+                new BookingRequest(30L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)),
+                new BookingRequest(31L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)),
+                new BookingRequest(32L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)));
+
+        RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body(requests)
+                .post("/bookings/batch")
+                .then()
+                .statusCode(200)
+                .body("[0].status", equalTo(201))
+                .body("[1].status", equalTo(404))
+                .body("[2].status", equalTo(503));
+    }
+
+    //Lote com pedido terminando hoje: a constraint @Future do endDate vale por item
+    @Test
+    @TestSecurity(user = "myuser", roles = "user")
+    void shouldRejectBatchItemEndingToday() {
+        Mockito.when(vehicleAPIClient.findVehicleById(50L))
+                .thenReturn(new VehicleAPIClient.Vehicle("AVAILABLE"));
+
+        List<BookingRequest> requests = List.of(
+                new BookingRequest(50L, LocalDate.now(), LocalDate.now()),
+                new BookingRequest(50L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(2)));
+
+        RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body(requests)
+                .post("/bookings/batch")
+                .then()
+                .statusCode(200)
+                .body("[0].status", equalTo(400))
+                .body("[1].status", equalTo(201));
+    }
+
+    //Circuito aberto: a reserva usa o último status conhecido do veículo
+    @Test
+    @TestSecurity(user = "myuser", roles = "user")
+    void shouldUseLastKnownVehicleStatusWhenCircuitIsOpen() {
+        Mockito.when(vehicleAPIClient.findVehicleById(40L))
+                .thenReturn(new VehicleAPIClient.Vehicle("AVAILABLE"));
+        vehicleStatusCache.find(40L);
+        vehicleStatusCache.invalidate(40L).await().indefinitely();
+
+        Mockito.when(vehicleAPIClient.findVehicleById(40L))
+                .thenThrow(new CircuitBreakerOpenException("vehicles-find"));
+
+        BookingRequest bookingRequest = new BookingRequest(40L,
+                LocalDate.now().plusDays(1),
+                LocalDate.now().plusDays(2));
+
+        RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body(bookingRequest)
+                .post("/bookings")
+                .then()
+                .statusCode(201);
+    }
+
     //Criar reserva com data inválida
     @Test
     @TestSecurity(user = "myuser", roles = "user")
@@ -161,6 +287,30 @@ public class BookingIntegrationTests {
                     .statusCode(200);
         }
 
+    //Listar todos os bookings em streaming NDJSON para admin
+    @Test
+    @TestSecurity(user = "myuser", roles = "admin")
+    void shouldStreamAllBookingsAsNdjsonForAdmin() {
+        RestAssured.given()
+                .accept("application/x-ndjson")
+                .get("/bookings/listall/stream")
+                .then()
+                .statusCode(200);
+    }
+
+    //Consultar a disponibilidade de um veículo sem reservas
+    @Test
+    @TestSecurity(user = "myuser", roles = "user")
+    void shouldReturnVehicleAvailability() {
+        RestAssured.given()
+                .queryParam("from", LocalDate.now().plusDays(1).toString())
+                .queryParam("to", LocalDate.now().plusDays(7).toString())
+                .get("/vehicles/1/availability")
+                .then()
+                .statusCode(200)
+                .body("available", equalTo(true));
+    }
+
     //Tentar listar todos os bookings para user e falhar
     @Test
     @TestSecurity(user = "myuser", roles = "user")
@@ -0,0 +1,104 @@
+package daniel.caixa.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import daniel.caixa.entity.Booking;
+import daniel.caixa.entity.BookingStatus;
+import daniel.caixa.kafka.BookingEvent;
+import daniel.caixa.kafka.BookingEventSerializer;
+import daniel.caixa.kafka.ReservaPayload;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Compara a serialização antiga (ObjectMapper novo por evento, entidade JPA) com o
+// BookingEventSerializer em json e avro. Rodar com:
+//   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=daniel.caixa.benchmark.BookingEventSerializationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingEventSerializationBenchmark {
+
+    private Booking booking;
+    private BookingEvent event;
+    private BookingEventSerializer json;
+    private BookingEventSerializer avro;
+
+    @Setup
+    public void setUp() {
+        booking = sampleBooking();
+        event = BookingEvent.of(booking);
+        json = new BookingEventSerializer(quarkusLikeMapper(), BookingEventSerializer.JSON);
+        avro = new BookingEventSerializer(quarkusLikeMapper(), BookingEventSerializer.AVRO);
+    }
+
+    @Benchmark
+    public byte[] legacyObjectMapperPerEvent() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.findAndRegisterModules();
+        return mapper.writeValueAsBytes(booking);
+    }
+
+    @Benchmark
+    public byte[] sharedJsonWriter() {
+        return json.serialize(BookingEvent.of(booking));
+    }
+
+    @Benchmark
+    public byte[] sharedReservaWriter() {
+        return json.serialize(ReservaPayload.of(booking, event.eventId()));
+    }
+
+    @Benchmark
+    public byte[] sharedAvroWriter() {
+        return avro.serialize(BookingEvent.of(booking));
+    }
+
+    public static void main(String[] args) throws Exception {
+        printSizes();
+        run();
+    }
+
+    private static void printSizes() throws Exception {
+        BookingEventSerializationBenchmark b = new BookingEventSerializationBenchmark();
+        b.setUp();
+        System.out.printf("bytes/evento: legado=%d reserva=%d json=%d avro=%d%n",
+                b.legacyObjectMapperPerEvent().length,
+                b.sharedReservaWriter().length,
+                b.json.serialize(b.event).length,
+                b.avro.serialize(b.event).length);
+    }
+
+    private static void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookingEventSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    // Mesma configuração de datas do ObjectMapper do Quarkus (ISO-8601 em vez de timestamps)
+    private static ObjectMapper quarkusLikeMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.findAndRegisterModules();
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
+
+    private static Booking sampleBooking() {
+        Booking booking = new Booking();
+        booking.setId(123456L);
+        booking.setVehicleId(42L);
+        booking.setCustomerId("2f1c7b9e-8a44-4f4e-9d1a-6c3f0b7e5a21");
+        booking.setStartDate(LocalDate.of(2025, 7, 1));
+        booking.setEndDate(LocalDate.of(2025, 7, 10));
+        booking.setStatus(BookingStatus.ACTIVE);
+        booking.setActivatedAt(LocalDate.of(2025, 7, 1));
+        return booking;
+    }
+}